@@ -8,7 +8,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.dal.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dal.dto.FilmFilterRequest;
 import ru.yandex.practicum.filmorate.dal.dto.NewFilmRequest;
+import ru.yandex.practicum.filmorate.dal.dto.SearchResultDto;
+import ru.yandex.practicum.filmorate.dal.dto.SuggestionDto;
 import ru.yandex.practicum.filmorate.dal.dto.UpdateFilmRequest;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.service.FilmService;
@@ -21,13 +24,44 @@ import java.util.*;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class FilmController {
 
+    static final int MAX_FUZZY_EDITS = 2;
+
     final FilmService filmService;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public Collection<FilmDto> findAll() {
-        log.info("Запрос на получения списка всех фильмов");
-        return filmService.getFilms();
+    public Collection<FilmDto> findAll(FilmFilterRequest filter) {
+        if (!filter.hasCriteria()) {
+            log.info("Запрос на получения списка всех фильмов");
+            return filmService.getFilms();
+        }
+        log.info("Запрос на получение списка фильмов по фильтру {}", filter);
+
+        if (filter.getCount() != null && filter.getCount() <= 0) {
+            throw new ValidationException(String.valueOf(filter.getCount()),
+                    "Количество фильмов должно быть положительным");
+        }
+        if (filter.getYearFrom() != null && filter.getYearTo() != null && filter.getYearFrom() > filter.getYearTo()) {
+            throw new ValidationException(filter.getYearFrom() + "-" + filter.getYearTo(),
+                    "Начальный год не может быть больше конечного");
+        }
+        if (filter.getDurationFrom() != null && filter.getDurationTo() != null
+                && filter.getDurationFrom() > filter.getDurationTo()) {
+            throw new ValidationException(filter.getDurationFrom() + "-" + filter.getDurationTo(),
+                    "Минимальная продолжительность не может быть больше максимальной");
+        }
+
+        FilmSortBy sortBy = null;
+        if (filter.getSortBy() != null) {
+            try {
+                sortBy = FilmSortBy.valueOf(filter.getSortBy().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException(filter.getSortBy(),
+                        String.format("Передан некорректный параметр сортировки. Допустимые значения:%s",
+                                Arrays.toString(FilmSortBy.values()).toLowerCase()));
+            }
+        }
+        return filmService.getFilms(filter, sortBy);
     }
 
     @PostMapping
@@ -78,6 +112,17 @@ public class FilmController {
         return filmService.getTopPopularFilms(count, genreId, year);
     }
 
+    @GetMapping("/trending")
+    @ResponseStatus(HttpStatus.OK)
+    public List<FilmDto> getTrendingFilms(@RequestParam(name = "window", defaultValue = "24h") String window,
+                                          @RequestParam(name = "count", defaultValue = "10") int count) {
+        TrendingWindow trendingWindow = TrendingWindow.fromValue(window)
+                .orElseThrow(() -> new ValidationException(window,
+                        String.format("Передан некорректный период. Допустимые значения:%s",
+                                Arrays.stream(TrendingWindow.values()).map(TrendingWindow::getValue).toList())));
+        return filmService.getTrendingFilms(trendingWindow, count);
+    }
+
     @GetMapping("/director/{director-id}")
     @ResponseStatus(HttpStatus.OK)
     public Collection<FilmDto> findFilmsByDirectorId(@PathVariable("director-id") Long directorId,
@@ -98,20 +143,56 @@ public class FilmController {
         return filmService.getCommonFilms(userId,friendId);
     }
 
+    @GetMapping("/search/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public List<SuggestionDto> getSuggestions(@RequestParam("prefix") String prefix,
+                                              @RequestParam(name = "count", defaultValue = "10") int count) {
+        int maxCount = filmService.getMaxSuggestions();
+        if (count <= 0 || count > maxCount) {
+            throw new ValidationException(String.valueOf(count),
+                    "Количество подсказок должно быть от 1 до " + maxCount);
+        }
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        return filmService.getSuggestions(prefix, count);
+    }
+
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
     public Collection<FilmDto> getFilmsByQuery(@RequestParam("query") String query,
-                                               @RequestParam(name = "by") Set<String> searchBy) {
+                                               @RequestParam(name = "by") Set<String> searchBy,
+                                               @RequestParam(name = "fuzzy", defaultValue = "0") int fuzzy) {
         if (query == null || query.isBlank()) {
             return filmService.getPopularFilms(Integer.MAX_VALUE);
         }
+        return filmService.getFilmsByQuery(query, parseSearchBy(searchBy, fuzzy), fuzzy);
+    }
 
+    @GetMapping(value = "/search", params = "facets=true")
+    @ResponseStatus(HttpStatus.OK)
+    public SearchResultDto getFilmsByQueryWithFacets(@RequestParam("query") String query,
+                                                     @RequestParam(name = "by") Set<String> searchBy,
+                                                     @RequestParam(name = "fuzzy", defaultValue = "0") int fuzzy) {
+        if (query == null || query.isBlank()) {
+            return filmService.getFilmsByQueryWithFacets("", List.of(), 0);
+        }
+        return filmService.getFilmsByQueryWithFacets(query, parseSearchBy(searchBy, fuzzy), fuzzy);
+    }
+
+    private List<SearchBy> parseSearchBy(Set<String> searchBy, int fuzzy) {
         if (searchBy == null || searchBy.isEmpty()) {
             throw new ValidationException("Параметр by не указан",
                     String.format("Не передан параметр фильтрации. Допустимые значения:%s",
                             Arrays.toString(SearchBy.values()).toLowerCase()));
         }
 
+        if (fuzzy < 0 || fuzzy > MAX_FUZZY_EDITS) {
+            throw new ValidationException(String.valueOf(fuzzy),
+                    String.format("Допустимое количество исправлений для нечеткого поиска: от 0 до %d",
+                            MAX_FUZZY_EDITS));
+        }
+
         List<SearchBy> searchCriteria = new ArrayList<>();
         searchBy.forEach(param -> {
             try {
@@ -123,6 +204,6 @@ public class FilmController {
                                 Arrays.toString(SearchBy.values()).toLowerCase()));
             }
         });
-        return filmService.getFilmsByQuery(query, searchCriteria);
+        return searchCriteria;
     }
 }
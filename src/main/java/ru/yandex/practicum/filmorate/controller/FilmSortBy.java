@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.controller;
+
+public enum FilmSortBy {
+    LIKES,
+    YEAR,
+    DURATION
+}
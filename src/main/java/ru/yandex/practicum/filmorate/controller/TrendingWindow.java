@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+public enum TrendingWindow {
+    DAY("24h", Duration.ofHours(24)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String value;
+    private final Duration duration;
+
+    TrendingWindow(String value, Duration duration) {
+        this.value = value;
+        this.duration = duration;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static Optional<TrendingWindow> fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(window -> window.value.equalsIgnoreCase(value))
+                .findFirst();
+    }
+}
@@ -37,6 +37,18 @@ public class DirectorRepository extends BaseRepository<Director> {
             ORDER BY d.DIRECTOR_ID ASC
             """;
 
+    private static final String FIND_DIRECTORS_BY_FILM_IDS_QUERY = """
+            SELECT
+                f.film_id,
+                d.director_id,
+                d.director_firstname,
+                d.director_lastname
+            FROM public.DIRECTOR d
+            INNER JOIN FILM_DIRECTORS f ON f.DIRECTOR_ID = d.DIRECTOR_ID
+            WHERE f.FILM_ID IN (%s)
+            ORDER BY d.DIRECTOR_ID ASC
+            """;
+
     private static final String INSERT_QUERY = """
             INSERT INTO public.DIRECTOR
             (director_firstname, director_lastname)
@@ -100,4 +112,16 @@ public class DirectorRepository extends BaseRepository<Director> {
     public List<Director> findDirectorsByFilmId(Long filmId) {
         return findMany(FIND_DIRECTORS_BY_FILM_ID_QUERY, filmId);
     }
+
+    public Map<Long, List<Director>> findDirectorsByFilmIds(Collection<Long> filmIds) {
+        Map<Long, List<Director>> directorsByFilm = new HashMap<>();
+        if (filmIds.isEmpty()) {
+            return directorsByFilm;
+        }
+        jdbc.query(String.format(FIND_DIRECTORS_BY_FILM_IDS_QUERY, placeholders(filmIds)), rs -> {
+            directorsByFilm.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>())
+                    .add(mapper.mapRow(rs, rs.getRow()));
+        }, filmIds.toArray());
+        return directorsByFilm;
+    }
 }
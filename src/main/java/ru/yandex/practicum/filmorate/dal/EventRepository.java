@@ -8,6 +8,8 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Event;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,9 @@ public class EventRepository extends BaseRepository<Event> {
     static final String FIND_EVENTS_BY_USER = "SELECT * FROM event WHERE user_id = ?";
     static final String EXIST_LIKE_ON_REVIEW_BY_USER = "SELECT 1 FROM event WHERE user_id = ? AND eventtype = 'LIKE' " +
             "AND operation = 'ADD' AND entity_id = ?";
+    static final String FIND_LAST_EVENT_ID = "SELECT COALESCE(MAX(event_id), 0) FROM event";
+    static final String FIND_EVENTS_AFTER = "SELECT * FROM event WHERE event_id > ? ORDER BY event_id LIMIT ?";
+    static final String FIND_EVENTS_BY_IDS = "SELECT * FROM event WHERE event_id IN (%s) ORDER BY event_id";
 
     public EventRepository(JdbcTemplate jdbc, RowMapper<Event> mapper) {
         super(jdbc, mapper, Event.class);
@@ -31,6 +36,22 @@ public class EventRepository extends BaseRepository<Event> {
         return findMany(FIND_EVENTS_BY_USER, userId);
     }
 
+    public long getLastEventId() {
+        return jdbc.queryForObject(FIND_LAST_EVENT_ID, Long.class);
+    }
+
+    public List<Event> getEventsAfter(long eventId, int limit) {
+        return findMany(FIND_EVENTS_AFTER, eventId, limit);
+    }
+
+    public List<Event> getEventsByIds(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(eventIds.size(), "?"));
+        return findMany(FIND_EVENTS_BY_IDS.formatted(placeholders), eventIds.toArray());
+    }
+
     public boolean existsLikeOnReviewByUser(Long userId, Long reviewId) {
         String sql = "SELECT 1 FROM review_likes WHERE user_id = ? AND review_id = ?";
         try {
@@ -4,17 +4,21 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.controller.SearchBy;
 import ru.yandex.practicum.filmorate.controller.SortBy;
+import ru.yandex.practicum.filmorate.dal.mappers.FilmProjectionExtractor;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import java.sql.Date;
 import java.util.*;
@@ -28,6 +32,10 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
     final RatingRepository ratingRepository;
     final GenreRepository genreRepository;
     final DirectorRepository directorRepository;
+    final FilmProjectionExtractor projectionExtractor;
+    final DirectorCache directorCache;
+    final LikeCounterRepository likeCounterRepository;
+    final LikeWriteBuffer likeWriteBuffer;
 
     static final String INSERT_QUERY = "INSERT INTO film(name, description, release_date, duration, rating_id)" +
             "VALUES (?, ?, ?, ?, ?)";
@@ -36,9 +44,62 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
             "rating_id = ? WHERE id = ?";
     static final String DELETE_QUERY = "DELETE FROM film WHERE id = ?";
     static final String FIND_ALL_QUERY = "SELECT * FROM film";
-    static final String FIND_POPULAR_QUERY = "SELECT f.*, COUNT(l.film_id) AS likes_count " +
-            "FROM film f LEFT JOIN likes l ON f.id = l.film_id GROUP BY f.id " +
-            "ORDER BY likes_count DESC LIMIT ?";
+    static final String FIND_ALL_IDS_QUERY = "SELECT id FROM film";
+    static final String EXISTS_QUERY = "SELECT EXISTS(SELECT 1 FROM film WHERE id = ?)";
+    static final String FIND_BY_IDS_QUERY = "SELECT * FROM film WHERE id IN (%s)";
+    static final String FIND_PROJECTION_QUERY = """
+            SELECT
+                f.*,
+                r.name AS rating_name,
+                (SELECT ARRAY_AGG(g.id ORDER BY g.id) FROM film_genres fg
+                    JOIN genre g ON g.id = fg.genre_id WHERE fg.film_id = f.id) AS genre_ids,
+                (SELECT ARRAY_AGG(g.name ORDER BY g.id) FROM film_genres fg
+                    JOIN genre g ON g.id = fg.genre_id WHERE fg.film_id = f.id) AS genre_names,
+                (SELECT ARRAY_AGG(d.director_id ORDER BY d.director_id) FROM film_directors fd
+                    JOIN director d ON d.director_id = fd.director_id WHERE fd.film_id = f.id) AS director_ids,
+                (SELECT ARRAY_AGG(d.director_firstname ORDER BY d.director_id) FROM film_directors fd
+                    JOIN director d ON d.director_id = fd.director_id WHERE fd.film_id = f.id) AS director_firstnames,
+                (SELECT ARRAY_AGG(d.director_lastname ORDER BY d.director_id) FROM film_directors fd
+                    JOIN director d ON d.director_id = fd.director_id WHERE fd.film_id = f.id) AS director_lastnames
+            FROM film f
+            LEFT JOIN rating r ON r.id = f.rating_id
+            %s
+            """;
+    static final String RECOMMENDED_FILMS_CONDITION = """
+            JOIN (
+                SELECT l.film_id, SUM(n.overlap) AS score
+                FROM (
+                    SELECT o.user_id, COUNT(*) AS overlap
+                    FROM likes m
+                    JOIN likes o ON o.film_id = m.film_id AND o.user_id <> m.user_id
+                    WHERE m.user_id = ?
+                    GROUP BY o.user_id
+                    ORDER BY overlap DESC, o.user_id
+                    LIMIT ?
+                ) n
+                JOIN likes l ON l.user_id = n.user_id
+                WHERE NOT EXISTS (SELECT 1 FROM likes own WHERE own.user_id = ? AND own.film_id = l.film_id)
+                GROUP BY l.film_id
+            ) s ON s.film_id = f.id
+            ORDER BY s.score DESC, f.id
+            """;
+    static final String PENDING_LIKES_JOIN = "LEFT JOIN (SELECT film_id, SUM(likes_count) AS pending " +
+            "FROM film_like_counters GROUP BY film_id) p ON p.film_id = f.id ";
+    static final String LIKES_COUNT = "f.likes_count + COALESCE(p.pending, 0)";
+    static final String FIND_POPULAR_QUERY = "SELECT f.* FROM film f " + PENDING_LIKES_JOIN +
+            "ORDER BY " + LIKES_COUNT + " DESC, f.id LIMIT ?";
+    static final String FIND_LIKES_COUNTS_QUERY = "SELECT f.id, COUNT(l.user_id) AS likes_count " +
+            "FROM film f LEFT JOIN likes l ON l.film_id = f.id GROUP BY f.id";
+    static final String MERGE_LIKE_QUERY = """
+            MERGE INTO likes l
+            USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BIGINT))) s(film_id, user_id, created_at)
+            ON l.film_id = s.film_id AND l.user_id = s.user_id
+            WHEN NOT MATCHED THEN INSERT (film_id, user_id, created_at) VALUES (s.film_id, s.user_id, s.created_at)
+            """;
+    static final String FIND_LIKE_TIME_QUERY = "SELECT created_at FROM likes WHERE film_id = ? AND user_id = ?";
+    static final String FIND_LIKE_TIMES_BY_USER_QUERY = "SELECT film_id, created_at FROM likes WHERE user_id = ?";
+    static final String FIND_ALL_LIKES_QUERY = "SELECT user_id, film_id FROM likes";
+    static final String FIND_LIKE_TIMES_SINCE_QUERY = "SELECT film_id, created_at FROM likes WHERE created_at >= ?";
     static final String INSERT_FILM_GENRE_QUERY = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
     static final String INSERT_FILM_DIRECTOR_QUERY = "INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)";
     static final String DELETE_FILM_GENRE_QUERY = "DELETE FROM film_genres WHERE film_id = ?";
@@ -64,19 +125,13 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
             	f.RELEASE_DATE,
             	f.DURATION,
             	f.RATING_ID,
-            	count(l.*) AS likes
+            	%s AS likes
             FROM film f
             INNER JOIN film_directors fd ON fd.FILM_ID = f.ID
-            LEFT JOIN likes l ON l.FILM_ID = f.ID
+            %s
             WHERE fd.DIRECTOR_ID = ?
-            GROUP BY f.ID,
-            		f.NAME,
-            		f.DESCRIPTION,
-            		f.RELEASE_DATE,
-            		f.DURATION,
-            		f.RATING_ID
-            ORDER BY likes desc
-            """;
+            ORDER BY likes desc, f.ID
+            """.formatted(LIKES_COUNT, PENDING_LIKES_JOIN);
 
     static final String FIND_FILMS_BY_QUERY = """
             SELECT
@@ -86,28 +141,36 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
             	f.RELEASE_DATE,
             	f.DURATION,
             	f.RATING_ID,
-            	count(l.*) AS likes
+            	%s AS likes
             FROM film f
             LEFT JOIN film_directors fd ON fd.FILM_ID = f.ID
             LEFT JOIN director d ON d.DIRECTOR_ID = fd.DIRECTOR_ID
-            LEFT JOIN likes l ON l.FILM_ID = f.ID
-            WHERE 1=1
             %s
+            WHERE 1=1
+            %%s
             GROUP BY f.ID,
                     f.NAME,
                     f.DESCRIPTION,
                     f.RELEASE_DATE,
                     f.DURATION,
-                    f.RATING_ID
-            ORDER BY likes desc
-            """;
+                    f.RATING_ID,
+                    f.LIKES_COUNT,
+                    p.pending
+            ORDER BY likes desc, f.ID
+            """.formatted(LIKES_COUNT, PENDING_LIKES_JOIN);
 
     public FilmRepository(JdbcTemplate jdbc, RowMapper<Film> mapper, RatingRepository ratingRepository,
-                          GenreRepository genreRepository, DirectorRepository directorRepository) {
+                          GenreRepository genreRepository, DirectorRepository directorRepository,
+                          FilmProjectionExtractor projectionExtractor, DirectorCache directorCache,
+                          LikeCounterRepository likeCounterRepository, LikeWriteBuffer likeWriteBuffer) {
         super(jdbc, mapper, Film.class);
         this.ratingRepository = ratingRepository;
         this.genreRepository = genreRepository;
         this.directorRepository = directorRepository;
+        this.projectionExtractor = projectionExtractor;
+        this.directorCache = directorCache;
+        this.likeCounterRepository = likeCounterRepository;
+        this.likeWriteBuffer = likeWriteBuffer;
     }
 
     @Override
@@ -148,6 +211,7 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
             film.getDirectors().forEach(director ->
                     jdbc.update(INSERT_FILM_DIRECTOR_QUERY, id, director.getId()));
         }
+        directorCache.putFilmDirectors(id, film.getDirectors() != null ? film.getDirectors() : Set.of());
 
         return getFilmById(id).get();
     }
@@ -181,24 +245,32 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
             }
             film.getDirectors().forEach(director -> jdbc.update(INSERT_FILM_DIRECTOR_QUERY,
                     film.getId(), director.getId()));
+            directorCache.putFilmDirectors(film.getId(), film.getDirectors());
         }
         return getFilmById(film.getId()).get();
     }
 
     @Override
     public boolean delete(Film film) {
+        likeWriteBuffer.discardFilm(film.getId());
+        likeCounterRepository.deleteByFilmId(film.getId());
+        directorCache.evictFilm(film.getId());
         return delete(DELETE_QUERY, film.getId());
     }
 
+    @Override
     public boolean deleteFilmWithRelations(Long filmId) {
+        likeWriteBuffer.discardFilm(filmId);
         String deleteLikesSql = "DELETE FROM likes WHERE film_id = ?";
         jdbc.update(deleteLikesSql, filmId);
+        likeCounterRepository.deleteByFilmId(filmId);
         String deleteGenresSql = "DELETE FROM film_genres WHERE film_id = ?";
         jdbc.update(deleteGenresSql, filmId);
         String deleteDirectorsSql = "DELETE FROM film_directors WHERE film_id = ?";
         jdbc.update(deleteDirectorsSql, filmId);
         String deleteReviewSql = "DELETE FROM review WHERE film_id = ?";
         jdbc.update(deleteReviewSql, filmId);
+        directorCache.evictFilm(filmId);
         return delete(DELETE_QUERY, filmId);
     }
 
@@ -213,22 +285,149 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
         return findMany(FIND_ALL_QUERY);
     }
 
+    @Override
+    public boolean exists(Long filmId) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(EXISTS_QUERY, Boolean.class, filmId));
+    }
+
+    public List<Long> getFilmIds() {
+        return jdbc.queryForList(FIND_ALL_IDS_QUERY, Long.class);
+    }
+
+    public Optional<Film> getFilmProjectionById(Long filmId) {
+        return findProjections("WHERE f.id = ?", filmId).stream().findFirst();
+    }
+
+    public List<Film> getFilmProjections() {
+        return findProjections("ORDER BY f.id");
+    }
+
+    private List<Film> findProjections(String condition, Object... params) {
+        return jdbc.query(String.format(FIND_PROJECTION_QUERY, condition), projectionExtractor, params);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Film> films = findMany(String.format(FIND_BY_IDS_QUERY, placeholders(ids)), ids.toArray())
+                .stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public List<Film> getPopularFilms(Integer countFilms) {
         return findMany(FIND_POPULAR_QUERY, countFilms);
     }
 
-    public void addLike(Long filmId, Long userId) {
-        String checkSql = "SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?";
-        Integer count = jdbc.queryForObject(checkSql, Integer.class, filmId, userId);
-        if (count == 0) {
-            String insertSql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-            jdbc.update(insertSql, filmId, userId);
+    public boolean addLike(Long filmId, Long userId, long likedAt) {
+        if (likeWriteBuffer.isEnabled()) {
+            return likeWriteBuffer.addLike(filmId, userId, likedAt);
         }
+        try {
+            if (jdbc.update(MERGE_LIKE_QUERY, filmId, userId, likedAt) == 0) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            log.debug("Лайк фильму {} от пользователя {} уже добавлен параллельным запросом", filmId, userId);
+            return false;
+        }
+        likeCounterRepository.increment(filmId, userId);
+        return true;
     }
 
-    public void removeLike(Long filmId, Long userId) {
+    public boolean removeLike(Long filmId, Long userId) {
+        if (likeWriteBuffer.isEnabled()) {
+            return likeWriteBuffer.removeLike(filmId, userId);
+        }
         String deleteLikeSql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbc.update(deleteLikeSql, filmId, userId);
+        if (jdbc.update(deleteLikeSql, filmId, userId) > 0) {
+            likeCounterRepository.decrement(filmId, userId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Optional<Long> getLikeTime(Long filmId, Long userId) {
+        Optional<LikeWriteBuffer.PendingLike> pending = likeWriteBuffer.getPending(filmId, userId);
+        if (pending.isPresent()) {
+            return Optional.ofNullable(pending.get().likedAt());
+        }
+        List<Long> likedAt = jdbc.queryForList(FIND_LIKE_TIME_QUERY, Long.class, filmId, userId);
+        return likedAt.isEmpty() ? Optional.empty() : Optional.ofNullable(likedAt.getFirst());
+    }
+
+    @Override
+    public Map<Long, Long> getLikeTimesByUser(Long userId) {
+        return likeWriteBuffer.read(() -> {
+            Map<Long, Long> likes = new HashMap<>();
+            jdbc.query(FIND_LIKE_TIMES_BY_USER_QUERY, (RowCallbackHandler) rs ->
+                    likes.put(rs.getLong("film_id"), rs.getObject("created_at", Long.class)), userId);
+            likeWriteBuffer.getPendingByUser(userId).forEach((filmId, like) -> {
+                if (like.liked()) {
+                    likes.put(filmId, like.likedAt());
+                } else {
+                    likes.remove(filmId);
+                }
+            });
+            return likes;
+        });
+    }
+
+    public Map<Long, List<Long>> getLikeTimesSince(long since) {
+        return likeWriteBuffer.read(() -> {
+            Map<Long, List<Long>> likes = new HashMap<>();
+            jdbc.query(FIND_LIKE_TIMES_SINCE_QUERY, (RowCallbackHandler) rs ->
+                    likes.computeIfAbsent(rs.getLong("film_id"), filmId -> new ArrayList<>())
+                            .add(rs.getLong("created_at")), since);
+            likeWriteBuffer.getPendingLikes().forEach((key, like) -> {
+                if (like.persisted() && like.persistedAt() != null && like.persistedAt() >= since) {
+                    likes.getOrDefault(key.filmId(), new ArrayList<>()).remove(like.persistedAt());
+                }
+                if (like.liked() && like.likedAt() >= since) {
+                    likes.computeIfAbsent(key.filmId(), filmId -> new ArrayList<>()).add(like.likedAt());
+                }
+            });
+            likes.values().removeIf(List::isEmpty);
+            return likes;
+        });
+    }
+
+    public Map<Long, List<Long>> getLikedFilmIdsByUsers() {
+        return likeWriteBuffer.read(() -> {
+            Map<Long, List<Long>> likes = new HashMap<>();
+            jdbc.query(FIND_ALL_LIKES_QUERY, (RowCallbackHandler) rs ->
+                    likes.computeIfAbsent(rs.getLong("user_id"), userId -> new ArrayList<>())
+                            .add(rs.getLong("film_id")));
+            likeWriteBuffer.getPendingLikes().forEach((key, like) -> {
+                if (like.liked() && !like.persisted()) {
+                    likes.computeIfAbsent(key.userId(), userId -> new ArrayList<>()).add(key.filmId());
+                } else if (!like.liked() && like.persisted()) {
+                    likes.getOrDefault(key.userId(), new ArrayList<>()).remove(key.filmId());
+                }
+            });
+            likes.values().removeIf(List::isEmpty);
+            return likes;
+        });
+    }
+
+    public Map<Long, Long> getLikesCounts() {
+        return likeWriteBuffer.read(() -> {
+            Map<Long, Long> likes = new HashMap<>();
+            jdbc.query(FIND_LIKES_COUNTS_QUERY, (RowCallbackHandler) rs ->
+                    likes.put(rs.getLong("id"), rs.getLong("likes_count")));
+            likeWriteBuffer.getPendingLikes().forEach((key, like) -> {
+                if (like.liked() != like.persisted()) {
+                    likes.computeIfPresent(key.filmId(), (filmId, count) -> count + (like.liked() ? 1 : -1));
+                }
+            });
+            return likes;
+        });
     }
 
     @Override
@@ -242,7 +441,8 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
     public List<Film> getFilmsByQuery(String text, List<SearchBy> filters) {
         if (filters.containsAll(List.of(SearchBy.TITLE, SearchBy.DIRECTOR))) {
             StringBuilder fltrs = new StringBuilder("AND (f.NAME ILIKE '%").append(text).append("%' ")
-                    .append("OR d.DIRECTOR_FIRSTNAME ILIKE '%").append(text).append("%')");
+                    .append("OR d.DIRECTOR_FIRSTNAME ILIKE '%").append(text).append("%' ")
+                    .append("OR d.DIRECTOR_LASTNAME ILIKE '%").append(text).append("%')");
             return findMany(String.format(FIND_FILMS_BY_QUERY, fltrs));
         } else {
             if (filters.size() > 1) {
@@ -256,38 +456,46 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
                 case TITLE -> {
 
                 }
-                case DIRECTOR -> fltr = new StringBuilder("AND d.DIRECTOR_FIRSTNAME ILIKE '%")
-                        .append(text).append("%'");
+                case DIRECTOR -> fltr = new StringBuilder("AND (d.DIRECTOR_FIRSTNAME ILIKE '%")
+                        .append(text).append("%' OR d.DIRECTOR_LASTNAME ILIKE '%").append(text).append("%')");
             }
             String q = String.format(FIND_FILMS_BY_QUERY, fltr);
             return findMany(q);
         }
     }
 
-        public List<Film> findPopularFilmsByGenreAndYear(int limit, Long genreId, Integer year) {
-        String sql = "SELECT f.*, COUNT(l.user_id) AS likes_count " +
-                "FROM film f " +
-                "LEFT JOIN likes l ON f.id = l.film_id " +
-                "LEFT JOIN film_genres fg ON f.id = fg.film_id " +
-                "WHERE 1=1 ";
+    public List<Film> findPopularFilmsByGenreAndYear(int limit, Long genreId, Integer year) {
+        StringBuilder sql = new StringBuilder("SELECT f.* FROM film f " + PENDING_LIKES_JOIN + "WHERE 1=1 ");
+        List<Object> params = new ArrayList<>();
 
         if (genreId != null) {
-            sql += "AND fg.genre_id = " + genreId + " ";
+            sql.append("AND EXISTS (SELECT 1 FROM film_genres fg WHERE fg.film_id = f.id AND fg.genre_id = ?) ");
+            params.add(genreId);
         }
         if (year != null) {
-            sql += "AND EXTRACT(YEAR FROM f.release_date) = " + year + " ";
+            sql.append("AND EXTRACT(YEAR FROM f.release_date) = ? ");
+            params.add(year);
         }
 
-        sql += "GROUP BY f.id " +
-                "ORDER BY likes_count DESC " +
-                "LIMIT " + limit;
+        sql.append("ORDER BY ").append(LIKES_COUNT).append(" DESC, f.id LIMIT ?");
+        params.add(limit);
 
-        return findMany(sql);
+        return findMany(sql.toString(), params.toArray());
     }
 
     public List<Long> getLikedFilmsByUser(Long userId) {
         String sql = "SELECT film_id FROM likes WHERE user_id = ?";
-        return jdbc.queryForList(sql, Long.class, userId);
+        return likeWriteBuffer.read(() -> {
+            Set<Long> filmIds = new LinkedHashSet<>(jdbc.queryForList(sql, Long.class, userId));
+            likeWriteBuffer.getPendingByUser(userId).forEach((filmId, like) -> {
+                if (like.liked()) {
+                    filmIds.add(filmId);
+                } else {
+                    filmIds.remove(filmId);
+                }
+            });
+            return List.copyOf(filmIds);
+        });
     }
 
     public List<Long> getUsersLikedSameFilms(List<Long> filmIds, Long ownUserId) {
@@ -305,24 +513,32 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
     }
 
     public List<Long> getRecommendedFilmIds(Long userId, Long similarUserId) {
-        String sql = "SELECT l.film_id FROM likes l WHERE l.user_id = ? AND l.film_id NOT IN (" +
-                "SELECT film_id FROM likes WHERE user_id = ?)";
-        return jdbc.queryForList(sql, Long.class, similarUserId, userId);
+        Set<Long> liked = new HashSet<>(getLikedFilmsByUser(userId));
+        return getLikedFilmsByUser(similarUserId).stream()
+                .filter(filmId -> !liked.contains(filmId))
+                .toList();
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(Long userId, int neighbours) {
+        return likeWriteBuffer.read(() -> {
+            Map<Long, LikeWriteBuffer.PendingLike> pending = likeWriteBuffer.getPendingByUser(userId);
+            return findProjections(RECOMMENDED_FILMS_CONDITION, userId, neighbours, userId).stream()
+                    .filter(film -> !pending.containsKey(film.getId()) || !pending.get(film.getId()).liked())
+                    .toList();
+        });
     }
 
     @Override
     public List<Film> getCommonLikedFilms(Long userId, Long friendId) {
-        String sql = """
-                SELECT f.*, COUNT(l2.user_id) AS like_count
-                FROM film f
-                JOIN likes l1 ON f.id = l1.film_id
-                JOIN likes l2 ON f.id = l2.film_id
-                WHERE l1.user_id = ?
-                  AND f.id IN (SELECT film_id FROM likes WHERE user_id = ?)
-                GROUP BY f.id
-                ORDER BY like_count DESC
-                """;
-
-        return findMany(sql, userId, friendId);
+        Set<Long> common = new HashSet<>(getLikedFilmsByUser(userId));
+        common.retainAll(getLikedFilmsByUser(friendId));
+        if (common.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT f.* FROM film f " + PENDING_LIKES_JOIN + "WHERE f.id IN (" +
+                common.stream().map(id -> "?").collect(Collectors.joining(",")) + ") " +
+                "ORDER BY " + LIKES_COUNT + " DESC, f.id";
+        return findMany(sql, common.toArray());
     }
 }
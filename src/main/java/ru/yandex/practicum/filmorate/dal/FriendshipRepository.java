@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.dal;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -13,7 +14,12 @@ import java.util.List;
 public class FriendshipRepository {
     final JdbcTemplate jdbc;
 
-    static final String INSERT_QUERY = "INSERT INTO friendships(user_id, friend_id) VALUES (?, ?)";
+    static final String MERGE_QUERY = """
+            MERGE INTO friendships f
+            USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER))) s(user_id, friend_id)
+            ON f.user_id = s.user_id AND f.friend_id = s.friend_id
+            WHEN NOT MATCHED THEN INSERT (user_id, friend_id) VALUES (s.user_id, s.friend_id)
+            """;
     static final String CHECK_FRIENDSHIP = "SELECT COUNT(*) FROM friendships WHERE user_id = ? AND friend_id = ?";
     static final String DELETE_FRIENDSHIP = "DELETE FROM friendships WHERE (user_id = ? AND friend_id = ?)";
     static final String FIND_COMMON_FRIENDS = "SELECT f.friend_id FROM friendships f WHERE f.user_id = ? " +
@@ -24,8 +30,13 @@ public class FriendshipRepository {
         this.jdbc = jdbc;
     }
 
-    public void addFriendship(Long userId, Long friendId) {
-        jdbc.update(INSERT_QUERY, userId, friendId);
+    public boolean addFriendship(Long userId, Long friendId) {
+        try {
+            return jdbc.update(MERGE_QUERY, userId, friendId) > 0;
+        } catch (DuplicateKeyException e) {
+            log.debug("Дружба {} -> {} уже добавлена параллельным запросом", userId, friendId);
+            return false;
+        }
     }
 
     public boolean friendshipExists(Long userId, Long friendId) {
@@ -33,8 +44,8 @@ public class FriendshipRepository {
         return count != null && count > 0;
     }
 
-    public void removeFriendship(Long userId, Long friendId) {
-        jdbc.update(DELETE_FRIENDSHIP, userId, friendId);
+    public boolean removeFriendship(Long userId, Long friendId) {
+        return jdbc.update(DELETE_FRIENDSHIP, userId, friendId) > 0;
     }
 
     public List<Long> findCommonFriends(Long userId1, Long userId2) {
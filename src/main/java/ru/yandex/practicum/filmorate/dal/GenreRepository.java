@@ -1,41 +1,68 @@
 package ru.yandex.practicum.filmorate.dal;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
+@Slf4j
 @Repository
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class GenreRepository extends BaseRepository<Genre> {
-    static final String FIND_BY_ID_QUERY = "SELECT * FROM genre WHERE id = ? ORDER BY id ASC";
     static final String FIND_ALL_QUERY = "SELECT * FROM genre ORDER BY id ASC";
+    static final String FIND_BY_FILM_ID_QUERY = "SELECT genre_id FROM film_genres WHERE film_id = ?";
+    static final String FIND_BY_FILM_IDS_QUERY = "SELECT film_id, genre_id FROM film_genres WHERE film_id IN (%s)";
+
+    volatile ReferenceSnapshot<Genre> snapshot;
 
     public GenreRepository(JdbcTemplate jdbc, RowMapper<Genre> mapper) {
         super(jdbc, mapper, Genre.class);
     }
 
+    @PostConstruct
+    public void refresh() {
+        snapshot = ReferenceSnapshot.of(findMany(FIND_ALL_QUERY), Genre::getId);
+        log.info("Загружено жанров в справочник: {}", snapshot.getValues().size());
+    }
+
     public Optional<Genre> findById(Long id) {
-        return findOne(FIND_BY_ID_QUERY, id);
+        return Optional.ofNullable(snapshot.get(id));
     }
 
     public Set<Genre> findAll() {
-        return new HashSet<>(findMany(FIND_ALL_QUERY));
+        return new HashSet<>(snapshot.getValues());
     }
 
     public Set<Genre> findGenresByFilmId(Long filmId) {
-        String searchGenresSql = """
-                SELECT g.*
-                FROM genre g
-                JOIN film_genres fg ON g.id = fg.genre_id
-                WHERE fg.film_id = ?
-                ORDER BY g.id ASC
-                """;
-        return new HashSet<>(findMany(searchGenresSql, filmId));
+        Set<Genre> genres = new HashSet<>();
+        jdbc.queryForList(FIND_BY_FILM_ID_QUERY, Long.class, filmId)
+                .forEach(genreId -> genres.add(resolve(genreId)));
+        return genres;
+    }
+
+    public Map<Long, Set<Genre>> findGenresByFilmIds(Collection<Long> filmIds) {
+        Map<Long, Set<Genre>> genresByFilm = new HashMap<>();
+        if (filmIds.isEmpty()) {
+            return genresByFilm;
+        }
+        jdbc.query(String.format(FIND_BY_FILM_IDS_QUERY, placeholders(filmIds)), rs -> {
+            genresByFilm.computeIfAbsent(rs.getLong("film_id"), id -> new HashSet<>())
+                    .add(resolve(rs.getLong("genre_id")));
+        }, filmIds.toArray());
+        return genresByFilm;
+    }
+
+    private Genre resolve(Long genreId) {
+        Genre genre = snapshot.get(genreId);
+        if (genre == null) {
+            refresh();
+            genre = snapshot.get(genreId);
+        }
+        return genre;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Repository
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LikeCounterRepository {
+    static final String MERGE_DELTA_QUERY = """
+            MERGE INTO film_like_counters c
+            USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER))) s(film_id, shard, delta)
+            ON c.film_id = s.film_id AND c.shard = s.shard
+            WHEN MATCHED THEN UPDATE SET likes_count = c.likes_count + s.delta
+            WHEN NOT MATCHED THEN INSERT (film_id, shard, likes_count) VALUES (s.film_id, s.shard, s.delta)
+            """;
+    static final String MERGE_USER_LIKES_QUERY = """
+            MERGE INTO film_like_counters c
+            USING (SELECT film_id, CAST(? AS INTEGER) AS shard FROM likes WHERE user_id = ?) s
+            ON c.film_id = s.film_id AND c.shard = s.shard
+            WHEN MATCHED THEN UPDATE SET likes_count = c.likes_count - 1
+            WHEN NOT MATCHED THEN INSERT (film_id, shard, likes_count) VALUES (s.film_id, s.shard, -1)
+            """;
+    static final String CLEAR_UNCOUNTED_QUERY = "DELETE FROM film_like_counters " +
+            "WHERE film_id IN (SELECT id FROM film WHERE likes_count IS NULL)";
+    static final String BACKFILL_QUERY = "UPDATE film f SET likes_count = " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id) WHERE likes_count IS NULL";
+    static final String FIND_PENDING_QUERY = "SELECT film_id, shard, likes_count FROM film_like_counters " +
+            "WHERE likes_count <> 0 FOR UPDATE";
+    static final String ADD_TO_FILM_QUERY = "UPDATE film SET likes_count = COALESCE(likes_count, 0) + ? WHERE id = ?";
+    static final String SUBTRACT_PENDING_QUERY = "UPDATE film_like_counters SET likes_count = likes_count - ? " +
+            "WHERE film_id = ? AND shard = ?";
+    static final String DELETE_EMPTY_QUERY = "DELETE FROM film_like_counters WHERE likes_count = 0";
+    static final String DELETE_BY_FILM_QUERY = "DELETE FROM film_like_counters WHERE film_id = ?";
+    static final String COUNT_BY_FILM_QUERY = "SELECT COALESCE((SELECT likes_count FROM film WHERE id = ?), 0) + " +
+            "COALESCE((SELECT SUM(likes_count) FROM film_like_counters WHERE film_id = ?), 0)";
+
+    final JdbcTemplate jdbc;
+    final TransactionTemplate transactionTemplate;
+    final int shards;
+    final long rollUpIntervalMs;
+    ScheduledExecutorService executor;
+
+    public LikeCounterRepository(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                                 @Value("${filmorate.likes.counter-shards:8}") int shards,
+                                 @Value("${filmorate.likes.counter-roll-up-interval-ms:1000}") long rollUpIntervalMs) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Количество счетчиков лайков должно быть положительным: " + shards);
+        }
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.rollUpIntervalMs = rollUpIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        backfill();
+        if (rollUpIntervalMs <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-counter-roll-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::rollUpQuietly, rollUpIntervalMs, rollUpIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public void backfill() {
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbc.update(CLEAR_UNCOUNTED_QUERY);
+            return jdbc.update(BACKFILL_QUERY);
+        });
+        if (rows != null && rows > 0) {
+            log.info("Заполнено {} счетчиков лайков по таблице likes", rows);
+        }
+    }
+
+    public void rollUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> pending = jdbc.query(FIND_PENDING_QUERY, (rs, rowNum) ->
+                    new Object[]{rs.getInt("likes_count"), rs.getInt("film_id"), rs.getInt("shard")});
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<Integer, Long> deltas = new HashMap<>();
+            pending.forEach(row -> deltas.merge((Integer) row[1], ((Integer) row[0]).longValue(), Long::sum));
+            List<Object[]> films = new ArrayList<>();
+            deltas.forEach((filmId, delta) -> films.add(new Object[]{delta, filmId}));
+            jdbc.batchUpdate(ADD_TO_FILM_QUERY, films);
+            jdbc.batchUpdate(SUBTRACT_PENDING_QUERY, pending);
+            jdbc.update(DELETE_EMPTY_QUERY);
+            log.debug("Счетчики лайков {} фильмов перенесены в таблицу film", films.size());
+        });
+    }
+
+    public void increment(Long filmId, Long userId) {
+        merge(MERGE_DELTA_QUERY, filmId, shardOf(userId), 1);
+    }
+
+    public void decrement(Long filmId, Long userId) {
+        merge(MERGE_DELTA_QUERY, filmId, shardOf(userId), -1);
+    }
+
+    public void applyAll(Collection<Delta> deltas) {
+        Map<List<Integer>, Integer> merged = new LinkedHashMap<>();
+        for (Delta delta : deltas) {
+            merged.merge(List.of(delta.filmId().intValue(), shardOf(delta.userId())), delta.delta(), Integer::sum);
+        }
+        List<Object[]> batch = new ArrayList<>();
+        merged.forEach((key, delta) -> {
+            if (delta != 0) {
+                batch.add(new Object[]{key.get(0), key.get(1), delta});
+            }
+        });
+        jdbc.batchUpdate(MERGE_DELTA_QUERY, batch);
+    }
+
+    public void decrementUserLikes(Long userId) {
+        merge(MERGE_USER_LIKES_QUERY, shardOf(userId), userId);
+    }
+
+    public void deleteByFilmId(Long filmId) {
+        jdbc.update(DELETE_BY_FILM_QUERY, filmId);
+    }
+
+    public long getLikesCount(Long filmId) {
+        Long count = jdbc.queryForObject(COUNT_BY_FILM_QUERY, Long.class, filmId, filmId);
+        return count == null ? 0 : count;
+    }
+
+    private void rollUpQuietly() {
+        try {
+            rollUp();
+        } catch (RuntimeException e) {
+            log.error("Не удалось перенести счетчики лайков в таблицу film", e);
+        }
+    }
+
+    private void merge(String query, Object... params) {
+        try {
+            jdbc.update(query, params);
+        } catch (DuplicateKeyException e) {
+            log.debug("Счетчик лайков создан параллельным запросом, повторяем обновление");
+            jdbc.update(query, params);
+        }
+    }
+
+    private int shardOf(Long userId) {
+        return Math.floorMod(userId, shards);
+    }
+
+    public record Delta(Long filmId, Long userId, int delta) {
+    }
+}
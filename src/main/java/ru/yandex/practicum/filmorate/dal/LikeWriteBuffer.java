@@ -0,0 +1,306 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LikeWriteBuffer {
+    static final String FIND_LIKE_TIME_QUERY = "SELECT created_at FROM likes WHERE film_id = ? AND user_id = ?";
+    static final String INSERT_QUERY = "INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)";
+    static final String DELETE_QUERY = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+    static final String UPDATE_TIME_QUERY = "UPDATE likes SET created_at = ? WHERE film_id = ? AND user_id = ?";
+
+    final JdbcTemplate jdbc;
+    final LikeCounterRepository likeCounterRepository;
+    final TransactionTemplate transactionTemplate;
+    final boolean enabled;
+    final int maxPending;
+    final int maxRetries;
+    final Map<LikeKey, PendingLike> pending = new ConcurrentHashMap<>();
+    final Map<LikeKey, Integer> failedAttempts = new ConcurrentHashMap<>();
+    final List<Consumer<DroppedLike>> dropListeners = new CopyOnWriteArrayList<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    final AtomicBoolean flushRequested = new AtomicBoolean();
+    final ScheduledExecutorService executor;
+
+    public LikeWriteBuffer(JdbcTemplate jdbc, LikeCounterRepository likeCounterRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.max-pending:500}") int maxPending,
+                           @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${filmorate.likes.write-behind.max-retries:3}") int maxRetries) {
+        this.jdbc = jdbc;
+        this.likeCounterRepository = likeCounterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.maxRetries = maxRetries;
+        if (enabled) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "like-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs,
+                    TimeUnit.MILLISECONDS);
+            log.info("Отложенная запись лайков включена: до {} изменений, сброс каждые {} мс",
+                    maxPending, flushIntervalMs);
+        } else {
+            executor = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean addLike(Long filmId, Long userId, long likedAt) {
+        return apply(new LikeKey(filmId, userId), like -> like.liked() ? like : like.withLike(likedAt));
+    }
+
+    public boolean removeLike(Long filmId, Long userId) {
+        return apply(new LikeKey(filmId, userId), like -> like.liked() ? like.withoutLike() : like);
+    }
+
+    public void onDropped(Consumer<DroppedLike> listener) {
+        dropListeners.add(listener);
+    }
+
+    public Optional<PendingLike> getPending(Long filmId, Long userId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(pending.get(new LikeKey(filmId, userId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, PendingLike> getPendingByUser(Long userId) {
+        Map<Long, PendingLike> likes = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            pending.forEach((key, like) -> {
+                if (key.userId().equals(userId)) {
+                    likes.put(key.filmId(), like);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return likes;
+    }
+
+    Map<LikeKey, PendingLike> getPendingLikes() {
+        lock.readLock().lock();
+        try {
+            return Map.copyOf(pending);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public <T> T read(Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void discardFilm(Long filmId) {
+        discard(key -> key.filmId().equals(filmId));
+    }
+
+    public void discardUser(Long userId) {
+        discard(key -> key.userId().equals(userId));
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Map.Entry<LikeKey, PendingLike>> changes = new ArrayList<>(pending.entrySet());
+            pending.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(changes));
+                changes.forEach(change -> failedAttempts.remove(change.getKey()));
+            } catch (RuntimeException e) {
+                log.warn("Не удалось записать пакет из {} изменений лайков, записываем по одному", changes.size(), e);
+                changes.forEach(this::writeOne);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            flushQuietly();
+        }
+    }
+
+    private boolean apply(LikeKey key, UnaryOperator<PendingLike> change) {
+        boolean[] changed = {false};
+        lock.readLock().lock();
+        try {
+            PendingLike stored = pending.containsKey(key) ? null : load(key);
+            pending.compute(key, (likeKey, like) -> {
+                PendingLike current = like != null ? like : stored;
+                PendingLike updated = change.apply(current);
+                changed[0] = updated.liked() != current.liked();
+                return updated;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+        return changed[0];
+    }
+
+    private void discard(Predicate<LikeKey> matches) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pending.keySet().removeIf(matches);
+            failedAttempts.keySet().removeIf(matches);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private PendingLike load(LikeKey key) {
+        List<Long> likedAt = jdbc.queryForList(FIND_LIKE_TIME_QUERY, Long.class, key.filmId(), key.userId());
+        return likedAt.isEmpty()
+                ? new PendingLike(false, null, false, null)
+                : new PendingLike(true, likedAt.getFirst(), true, likedAt.getFirst());
+    }
+
+    private void write(List<Map.Entry<LikeKey, PendingLike>> changes) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<LikeCounterRepository.Delta> deltas = new ArrayList<>();
+        for (Map.Entry<LikeKey, PendingLike> change : changes) {
+            LikeKey key = change.getKey();
+            PendingLike like = change.getValue();
+            if (like.liked() && !like.persisted()) {
+                inserts.add(new Object[]{key.filmId(), key.userId(), like.likedAt()});
+                deltas.add(new LikeCounterRepository.Delta(key.filmId(), key.userId(), 1));
+            } else if (!like.liked() && like.persisted()) {
+                deletes.add(new Object[]{key.filmId(), key.userId()});
+                deltas.add(new LikeCounterRepository.Delta(key.filmId(), key.userId(), -1));
+            } else if (like.liked() && !Objects.equals(like.likedAt(), like.persistedAt())) {
+                updates.add(new Object[]{like.likedAt(), key.filmId(), key.userId()});
+            }
+        }
+        jdbc.batchUpdate(INSERT_QUERY, inserts);
+        jdbc.batchUpdate(DELETE_QUERY, deletes);
+        jdbc.batchUpdate(UPDATE_TIME_QUERY, updates);
+        likeCounterRepository.applyAll(deltas);
+        log.debug("Записано лайков: добавлено {}, удалено {}, обновлено {}",
+                inserts.size(), deletes.size(), updates.size());
+    }
+
+    private void writeOne(Map.Entry<LikeKey, PendingLike> change) {
+        LikeKey key = change.getKey();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(List.of(change)));
+            failedAttempts.remove(key);
+        } catch (DataIntegrityViolationException e) {
+            failedAttempts.remove(key);
+            log.error("Изменение лайка фильма {} пользователем {} нарушает целостность данных и отброшено",
+                    key.filmId(), key.userId(), e);
+            drop(key, change.getValue());
+        } catch (RuntimeException e) {
+            int attempts = failedAttempts.merge(key, 1, Integer::sum);
+            if (attempts > maxRetries) {
+                failedAttempts.remove(key);
+                log.error("Изменение лайка фильма {} пользователем {} отброшено после {} попыток",
+                        key.filmId(), key.userId(), attempts, e);
+                drop(key, change.getValue());
+            } else if (pending.putIfAbsent(key, change.getValue()) != null) {
+                failedAttempts.remove(key);
+            }
+        }
+    }
+
+    private void drop(LikeKey key, PendingLike like) {
+        DroppedLike dropped = new DroppedLike(key.filmId(), key.userId(), like);
+        for (Consumer<DroppedLike> listener : dropListeners) {
+            try {
+                listener.accept(dropped);
+            } catch (RuntimeException e) {
+                log.error("Не удалось откатить отброшенное изменение лайка фильма {} пользователем {}",
+                        key.filmId(), key.userId(), e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать {} отложенных изменений лайков", pending.size(), e);
+        }
+    }
+
+    record LikeKey(Long filmId, Long userId) {
+    }
+
+    public record DroppedLike(Long filmId, Long userId, PendingLike like) {
+    }
+
+    public record PendingLike(boolean persisted, Long persistedAt, boolean liked, Long likedAt) {
+        PendingLike withLike(long time) {
+            return new PendingLike(persisted, persistedAt, true, time);
+        }
+
+        PendingLike withoutLike() {
+            return new PendingLike(persisted, persistedAt, false, null);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.dal;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -7,25 +8,37 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Rating;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Slf4j
 @Repository
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class RatingRepository extends BaseRepository<Rating> {
-    static final String FIND_ALL_QUERY = "SELECT * FROM rating";
-    static final String FIND_BY_ID_QUERY = "SELECT * FROM rating WHERE id = ?";
+    static final String FIND_ALL_QUERY = "SELECT * FROM rating ORDER BY id ASC";
+
+    volatile ReferenceSnapshot<Rating> snapshot;
 
     public RatingRepository(JdbcTemplate jdbc, RowMapper<Rating> mapper) {
         super(jdbc, mapper, Rating.class);
     }
 
+    @PostConstruct
+    public void refresh() {
+        snapshot = ReferenceSnapshot.of(findMany(FIND_ALL_QUERY), Rating::getId);
+        log.info("Загружено рейтингов в справочник: {}", snapshot.getValues().size());
+    }
+
     public Optional<Rating> findById(Long id) {
-        return findOne(FIND_BY_ID_QUERY, id);
+        return Optional.ofNullable(snapshot.get(id));
     }
 
     public List<Rating> findAll() {
-        return findMany(FIND_ALL_QUERY);
+        return snapshot.getValues();
+    }
+
+    public Map<Long, Rating> findByIds(Collection<Long> ids) {
+        Map<Long, Rating> ratings = new HashMap<>();
+        ids.forEach(id -> findById(id).ifPresent(rating -> ratings.put(id, rating)));
+        return ratings;
     }
-}
\ No newline at end of file
+}
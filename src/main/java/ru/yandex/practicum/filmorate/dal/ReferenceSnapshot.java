@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class ReferenceSnapshot<T> {
+    private final Object[] byId;
+    private final List<T> values;
+
+    private ReferenceSnapshot(Object[] byId, List<T> values) {
+        this.byId = byId;
+        this.values = values;
+    }
+
+    public static <T> ReferenceSnapshot<T> of(List<T> values, Function<T, Long> idGetter) {
+        long maxId = values.stream()
+                .mapToLong(idGetter::apply)
+                .max()
+                .orElse(0);
+        Object[] byId = new Object[Math.toIntExact(maxId + 1)];
+        values.forEach(value -> byId[Math.toIntExact(idGetter.apply(value))] = value);
+        return new ReferenceSnapshot<>(byId, List.copyOf(values));
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(Long id) {
+        if (id == null || id < 0 || id >= byId.length) {
+            return null;
+        }
+        return (T) byId[id.intValue()];
+    }
+
+    public List<T> getValues() {
+        return values;
+    }
+}
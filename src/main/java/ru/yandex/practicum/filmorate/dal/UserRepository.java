@@ -25,10 +25,18 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
     static final String UPDATE_QUERY = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
     static final String DELETE_QUERY = "DELETE FROM users WHERE id = ?";
     static final String FIND_ALL_QUERY = "SELECT * FROM users";
+    static final String FIND_ALL_IDS_QUERY = "SELECT id FROM users";
+    static final String EXISTS_QUERY = "SELECT EXISTS(SELECT 1 FROM users WHERE id = ?)";
+
+    final LikeCounterRepository likeCounterRepository;
+    final LikeWriteBuffer likeWriteBuffer;
 
     @Autowired
-    public UserRepository(JdbcTemplate jdbc, RowMapper<User> mapper) {
+    public UserRepository(JdbcTemplate jdbc, RowMapper<User> mapper, LikeCounterRepository likeCounterRepository,
+                          LikeWriteBuffer likeWriteBuffer) {
         super(jdbc, mapper, User.class);
+        this.likeCounterRepository = likeCounterRepository;
+        this.likeWriteBuffer = likeWriteBuffer;
     }
 
     @Override
@@ -68,13 +76,25 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
         return findOne(FIND_BY_ID_QUERY, id);
     }
 
+    @Override
+    public boolean exists(Long id) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(EXISTS_QUERY, Boolean.class, id));
+    }
+
     @Override
     public List<User> getUsers() {
         return findMany(FIND_ALL_QUERY);
     }
 
+    public List<Long> getUserIds() {
+        return jdbc.queryForList(FIND_ALL_IDS_QUERY, Long.class);
+    }
+
+    @Override
     public void deleteUserById(Long userId) {
+        likeWriteBuffer.discardUser(userId);
         jdbc.update("DELETE FROM friendships WHERE user_id = ? OR friend_id = ?", userId, userId);
+        likeCounterRepository.decrementUserLikes(userId);
         jdbc.update("DELETE FROM likes WHERE user_id = ?", userId);
         jdbc.update("DELETE FROM review WHERE user_id = ?", userId);
         jdbc.update("DELETE FROM event WHERE user_id = ?", userId);
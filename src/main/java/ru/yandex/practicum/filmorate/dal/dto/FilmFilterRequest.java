@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.dal.dto;
+
+import lombok.Data;
+import java.util.Set;
+
+@Data
+public class FilmFilterRequest {
+    Set<Long> genreId;
+    Set<Long> mpaId;
+    Set<Long> directorId;
+    Integer yearFrom;
+    Integer yearTo;
+    Integer durationFrom;
+    Integer durationTo;
+    String sortBy;
+    Integer count;
+
+    public boolean hasCriteria() {
+        return genreId != null || mpaId != null || directorId != null || yearFrom != null || yearTo != null
+                || durationFrom != null || durationTo != null || sortBy != null || count != null;
+    }
+}
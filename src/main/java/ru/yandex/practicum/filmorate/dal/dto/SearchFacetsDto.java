@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.dal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsDto {
+    Map<Long, Integer> genres;
+    Map<Long, Integer> mpa;
+    Map<Integer, Integer> decades;
+}
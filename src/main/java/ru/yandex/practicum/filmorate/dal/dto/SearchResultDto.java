@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDto {
+    List<FilmDto> films;
+    SearchFacetsDto facets;
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.dal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    String type;
+    Long id;
+    String text;
+    long likes;
+}
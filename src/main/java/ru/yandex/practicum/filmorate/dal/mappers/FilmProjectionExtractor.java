@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.dal.mappers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class FilmProjectionExtractor implements ResultSetExtractor<List<Film>> {
+    private final FilmRowMapper filmRowMapper;
+
+    @Override
+    public List<Film> extractData(ResultSet rs) throws SQLException {
+        List<Film> films = new ArrayList<>();
+        while (rs.next()) {
+            Film film = filmRowMapper.mapRow(rs, rs.getRow());
+            film.getMpa().setName(rs.getString("rating_name"));
+            film.setGenres(mapGenres(rs));
+            film.setDirectors(mapDirectors(rs));
+            films.add(film);
+        }
+        return films;
+    }
+
+    private Set<Genre> mapGenres(ResultSet rs) throws SQLException {
+        Object[] ids = toArray(rs.getArray("genre_ids"));
+        Object[] names = toArray(rs.getArray("genre_names"));
+        Set<Genre> genres = new HashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            Genre genre = new Genre();
+            genre.setId(((Number) ids[i]).longValue());
+            genre.setName((String) names[i]);
+            genres.add(genre);
+        }
+        return genres;
+    }
+
+    private Set<Director> mapDirectors(ResultSet rs) throws SQLException {
+        Object[] ids = toArray(rs.getArray("director_ids"));
+        Object[] firstNames = toArray(rs.getArray("director_firstnames"));
+        Object[] lastNames = toArray(rs.getArray("director_lastnames"));
+        Set<Director> directors = new HashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            Director director = new Director();
+            director.setId(((Number) ids[i]).longValue());
+            director.setFirstName((String) firstNames[i]);
+            director.setLastName((String) lastNames[i]);
+            directors.add(director);
+        }
+        return directors;
+    }
+
+    private static Object[] toArray(Array array) throws SQLException {
+        return array == null ? new Object[0] : (Object[]) array.getArray();
+    }
+}
@@ -11,10 +11,13 @@ import ru.yandex.practicum.filmorate.dal.dto.UpdateDirectorRequest;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.DirectorMapper;
 import ru.yandex.practicum.filmorate.model.Director;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.SearchResultCache;
+import ru.yandex.practicum.filmorate.storage.film.SearchSuggestIndex;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,9 +25,15 @@ import java.util.stream.Collectors;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class DirectorService {
     final DirectorRepository directorRepository;
+    final DirectorCache directorCache;
+    final FilmCache filmCache;
+    final FilmSearchIndex filmSearchIndex;
+    final SearchSuggestIndex searchSuggestIndex;
+    final FilmFacetIndex filmFacetIndex;
+    final SearchResultCache searchResultCache;
 
     public DirectorDto getDirectorById(Long id) {
-        return directorRepository.findDirectorById(id)
+        return findDirectorById(id)
                 .map(DirectorMapper::mapToDirectorDto)
                 .orElseThrow(() -> new NotFoundException("Режиссер не найден с ID: " + id));
     }
@@ -39,32 +48,92 @@ public class DirectorService {
         Director director = DirectorMapper.mapToDirector(request);
         Director.validateDirector(director);
         director = directorRepository.create(director);
+        directorCache.putDirector(director);
+        filmSearchIndex.updateDirector(director);
+        searchSuggestIndex.updateDirector(director);
         return DirectorMapper.mapToDirectorDto(director);
     }
 
     public DirectorDto updateDirector(UpdateDirectorRequest request) {
         Long id = request.getId();
 
-        if (directorRepository.findDirectorById(id).isEmpty()) {
+        if (findDirectorById(id).isEmpty()) {
             throw new NotFoundException(String.format("Режиссер с ID - %d не найден", id));
         }
 
         Director existingDirector = DirectorMapper.mapToDirector(request);
         Director.validateDirector(existingDirector);
         existingDirector =  directorRepository.update(existingDirector);
+        directorCache.putDirector(existingDirector);
+        filmCache.evictByDirector(id);
+        filmSearchIndex.updateDirector(existingDirector);
+        searchSuggestIndex.updateDirector(existingDirector);
+        searchResultCache.bumpVersion();
         return DirectorMapper.mapToDirectorDto(existingDirector);
     }
 
     public boolean deleteDirector(Long id) {
-        Optional<Director> director = directorRepository.findDirectorById(id);
+        Optional<Director> director = findDirectorById(id);
         if (director.isPresent()) {
-            return directorRepository.delete(director.get());
+            boolean deleted = directorRepository.delete(director.get());
+            directorCache.evictDirector(id);
+            filmCache.evictByDirector(id);
+            filmSearchIndex.removeDirector(id);
+            searchSuggestIndex.removeDirector(id);
+            filmFacetIndex.removeDirector(id);
+            searchResultCache.bumpVersion();
+            return deleted;
         } else {
             throw new NotFoundException(String.format("Режиссер с ID - %d не найден", id));
         }
     }
 
     public Set<Director> getDirectorsByFilmId(Long filmId) {
-        return new HashSet<>(directorRepository.findDirectorsByFilmId(filmId));
+        return new HashSet<>(getDirectorsByFilmIds(List.of(filmId)).getOrDefault(filmId, List.of()));
+    }
+
+    public Map<Long, List<Director>> getDirectorsByFilmIds(Collection<Long> filmIds) {
+        Map<Long, List<Director>> directorsByFilm = new HashMap<>();
+        List<Long> missedFilmIds = new ArrayList<>();
+        for (Long filmId : filmIds) {
+            Optional<List<Director>> directors = directorCache.getDirectorIds(filmId)
+                    .flatMap(this::findCachedDirectors);
+            if (directors.isPresent()) {
+                directorsByFilm.put(filmId, directors.get());
+            } else {
+                missedFilmIds.add(filmId);
+            }
+        }
+
+        Map<Long, List<Director>> loaded = directorRepository.findDirectorsByFilmIds(missedFilmIds);
+        for (Long filmId : missedFilmIds) {
+            List<Director> directors = loaded.getOrDefault(filmId, List.of());
+            directors.forEach(directorCache::putDirector);
+            directorCache.putFilmDirectors(filmId, directors);
+            directorsByFilm.put(filmId, directors);
+        }
+        return directorsByFilm;
+    }
+
+    private Optional<Director> findDirectorById(Long id) {
+        Optional<Director> cached = directorCache.getDirector(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<Director> director = directorRepository.findDirectorById(id);
+        director.ifPresent(directorCache::putDirector);
+        return director;
+    }
+
+    private Optional<List<Director>> findCachedDirectors(List<Long> directorIds) {
+        List<Director> directors = new ArrayList<>(directorIds.size());
+        for (Long directorId : directorIds) {
+            Optional<Director> director = directorCache.getDirector(directorId);
+            if (director.isEmpty()) {
+                return Optional.empty();
+            }
+            directors.add(director.get());
+        }
+        return Optional.of(directors);
     }
 }
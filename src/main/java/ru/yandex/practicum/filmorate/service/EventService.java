@@ -18,14 +18,15 @@ public class EventService {
     final EventRepository eventRepository;
     final UserStorage userStorage;
 
-    public EventService(EventRepository eventRepository, @Qualifier("dbStorage") UserStorage userStorage) {
+    public EventService(EventRepository eventRepository, @Qualifier("cachedStorage") UserStorage userStorage) {
         this.eventRepository = eventRepository;
         this.userStorage = userStorage;
     }
 
     public List<EventDto> getEventsByUserId(Long userId) {
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", userId)));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", userId));
+        }
 
         return eventRepository.findEventsByUser(userId)
                 .stream()
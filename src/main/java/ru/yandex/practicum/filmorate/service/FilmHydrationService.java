@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.dal.RatingRepository;
+import ru.yandex.practicum.filmorate.dal.dto.FilmDto;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FilmHydrationService {
+    final RatingRepository ratingRepository;
+    final GenreRepository genreRepository;
+    final DirectorService directorService;
+
+    public FilmDto hydrate(Film film) {
+        return hydrate(List.of(film)).getFirst();
+    }
+
+    public List<FilmDto> hydrate(List<Film> films) {
+        if (films.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> filmIds = films.stream()
+                .map(Film::getId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<Long> ratingIds = films.stream()
+                .map(film -> film.getMpa().getId())
+                .collect(Collectors.toSet());
+
+        Map<Long, Rating> ratings = ratingRepository.findByIds(ratingIds);
+        Map<Long, Set<Genre>> genres = genreRepository.findGenresByFilmIds(filmIds);
+        Map<Long, List<Director>> directors = directorService.getDirectorsByFilmIds(filmIds);
+
+        return films.stream()
+                .map(film -> {
+                    Long mpaId = film.getMpa().getId();
+                    Rating mpa = Optional.ofNullable(ratings.get(mpaId))
+                            .orElseThrow(() -> new NotFoundException("Рейтинг не найден с ID: " + mpaId));
+                    film.setMpa(mpa);
+                    film.setGenres(genres.getOrDefault(film.getId(), new HashSet<>()));
+                    film.setDirectors(new HashSet<>(directors.getOrDefault(film.getId(), List.of())));
+                    return FilmMapper.mapToFilmDto(film);
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
@@ -8,15 +9,29 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.controller.SearchBy;
 import ru.yandex.practicum.filmorate.dal.EventRepository;
 import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dal.LikeWriteBuffer;
 import ru.yandex.practicum.filmorate.dal.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dal.dto.FilmFilterRequest;
 import ru.yandex.practicum.filmorate.dal.dto.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dal.dto.RatingDto;
+import ru.yandex.practicum.filmorate.dal.dto.SearchResultDto;
+import ru.yandex.practicum.filmorate.dal.dto.SuggestionDto;
 import ru.yandex.practicum.filmorate.dal.dto.UpdateFilmRequest;
+import ru.yandex.practicum.filmorate.controller.FilmSortBy;
 import ru.yandex.practicum.filmorate.controller.SortBy;
+import ru.yandex.practicum.filmorate.controller.TrendingWindow;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.film.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.SearchResultCache;
+import ru.yandex.practicum.filmorate.storage.film.SearchSuggestIndex;
+import ru.yandex.practicum.filmorate.storage.film.TrendingTracker;
+import ru.yandex.practicum.filmorate.storage.user.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.user.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import java.time.Instant;
 import java.util.*;
@@ -33,10 +48,25 @@ public class FilmService {
     final DirectorService directorService;
     final EventRepository eventRepository;
     final FilmRepository filmRepository;
-
-    public FilmService(@Qualifier("dbStorage") FilmStorage filmStorage, @Qualifier("dbStorage") UserStorage userStorage,
+    final FilmHydrationService filmHydrationService;
+    final PopularityLeaderboard popularityLeaderboard;
+    final TrendingTracker trendingTracker;
+    final FilmSearchIndex filmSearchIndex;
+    final SearchSuggestIndex searchSuggestIndex;
+    final FilmFacetIndex filmFacetIndex;
+    final SearchResultCache searchResultCache;
+    final LikeMatrix likeMatrix;
+    final RecommendationStore recommendationStore;
+    final LikeWriteBuffer likeWriteBuffer;
+
+    public FilmService(@Qualifier("cachedStorage") FilmStorage filmStorage, @Qualifier("cachedStorage") UserStorage userStorage,
                        RatingService ratingService, GenreService genreService, DirectorService directorService,
-                       EventRepository eventRepository, FilmRepository filmRepository) {
+                       EventRepository eventRepository, FilmRepository filmRepository,
+                       FilmHydrationService filmHydrationService, PopularityLeaderboard popularityLeaderboard,
+                       TrendingTracker trendingTracker, FilmSearchIndex filmSearchIndex,
+                       SearchSuggestIndex searchSuggestIndex, FilmFacetIndex filmFacetIndex,
+                       SearchResultCache searchResultCache, LikeMatrix likeMatrix,
+                       RecommendationStore recommendationStore, LikeWriteBuffer likeWriteBuffer) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
         this.ratingService = ratingService;
@@ -44,6 +74,21 @@ public class FilmService {
         this.directorService = directorService;
         this.eventRepository = eventRepository;
         this.filmRepository = filmRepository;
+        this.filmHydrationService = filmHydrationService;
+        this.popularityLeaderboard = popularityLeaderboard;
+        this.trendingTracker = trendingTracker;
+        this.filmSearchIndex = filmSearchIndex;
+        this.searchSuggestIndex = searchSuggestIndex;
+        this.filmFacetIndex = filmFacetIndex;
+        this.searchResultCache = searchResultCache;
+        this.likeMatrix = likeMatrix;
+        this.recommendationStore = recommendationStore;
+        this.likeWriteBuffer = likeWriteBuffer;
+    }
+
+    @PostConstruct
+    public void revertDroppedLikes() {
+        likeWriteBuffer.onDropped(this::revertLike);
     }
 
     public FilmDto createFilm(NewFilmRequest request) {
@@ -59,49 +104,35 @@ public class FilmService {
             film.getDirectors().forEach(director -> directorService.getDirectorById(director.getId()));
         }
         film = filmStorage.create(film);
-        return getFilmById(film.getId());
+        Film created = findFilmById(film.getId());
+        popularityLeaderboard.addFilm(created);
+        filmSearchIndex.addFilm(created);
+        searchSuggestIndex.addFilm(created);
+        filmFacetIndex.addFilm(created);
+        searchResultCache.bumpVersion();
+        return FilmMapper.mapToFilmDto(created);
     }
 
     public FilmDto getFilmById(Long filmId) {
-        Film film = filmStorage.getFilmById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм не найден с ID: " + filmId));
-
-        RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-        Rating mpa = new Rating();
-        mpa.setId(mpaDto.getId());
-        mpa.setName(mpaDto.getName());
-        film.setMpa(mpa);
-
-        Set<Genre> genres = genreService.getGenresForFilm(filmId);
-        Set<Director> directors = directorService.getDirectorsByFilmId(filmId);
-        film.setGenres(genres);
-        film.setDirectors(directors);
-
-        return FilmMapper.mapToFilmDto(film);
+        return FilmMapper.mapToFilmDto(findFilmById(filmId));
     }
 
     public List<FilmDto> getFilms() {
-        return filmStorage.getFilms()
+        return filmRepository.getFilmProjections()
                 .stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
+                .map(FilmMapper::mapToFilmDto)
                 .collect(Collectors.toList());
     }
 
+    public List<FilmDto> getFilms(FilmFilterRequest filter, FilmSortBy sortBy) {
+        int count = filter.getCount() == null ? Integer.MAX_VALUE : filter.getCount();
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(filmFacetIndex.find(filter, sortBy, count)));
+    }
+
     public FilmDto updateFilm(UpdateFilmRequest request) {
         Long filmId = request.getId();
 
-        Film existingFilm = filmStorage.getFilmById(filmId)
+        Film existingFilm = filmRepository.getFilmById(filmId)
                 .orElseThrow(() -> new NotFoundException(String.format("Фильм с ID - %d не найден", filmId)));
 
         existingFilm = FilmMapper.updateFilmFields(existingFilm, request);
@@ -124,136 +155,155 @@ public class FilmService {
 
         filmStorage.update(existingFilm);
 
-        return getFilmById(filmId);
+        Film updated = findFilmById(filmId);
+        popularityLeaderboard.updateFilm(updated);
+        filmSearchIndex.updateFilm(updated);
+        searchSuggestIndex.updateFilm(updated);
+        filmFacetIndex.updateFilm(updated);
+        searchResultCache.bumpVersion();
+        return FilmMapper.mapToFilmDto(updated);
     }
 
     public List<FilmDto> getPopularFilms(Integer count) {
-        return filmStorage.getPopularFilms(count)
-                .stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
-                .collect(Collectors.toList());
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(popularityLeaderboard.getTopFilmIds(count)));
     }
 
     public boolean deleteFilmAndRelations(Long id) {
-        Optional<Film> filmOpt = filmStorage.getFilmById(id);
-        if (filmOpt.isEmpty()) {
+        if (!filmStorage.exists(id)) {
             throw new NotFoundException(String.format("Фильм не найден с ID: %d", id));
         }
-        return ((FilmRepository) filmStorage).deleteFilmWithRelations(id);
+        boolean deleted = filmStorage.deleteFilmWithRelations(id);
+        popularityLeaderboard.removeFilm(id);
+        trendingTracker.removeFilm(id);
+        filmSearchIndex.removeFilm(id);
+        searchSuggestIndex.removeFilm(id);
+        filmFacetIndex.removeFilm(id);
+        recommendationStore.removeFilm(id);
+        likeMatrix.removeFilm(id);
+        searchResultCache.bumpVersion();
+        return deleted;
     }
 
     public void addLike(Long filmId, Long userId) {
-        filmStorage.getFilmById(filmId);
-        userStorage.getUserById(userId);
+        if (!filmStorage.exists(filmId)) {
+            throw new NotFoundException("Фильм не найден с ID: " + filmId);
+        }
 
-        filmStorage.addLike(filmId, userId);
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
-        eventRepository.addEvent(Instant.now().toEpochMilli(), userId, EventType.LIKE.toString(),
-                Operation.ADD.toString(), filmId);
+        long timestamp = Instant.now().toEpochMilli();
+        if (filmStorage.addLike(filmId, userId, timestamp)) {
+            popularityLeaderboard.increment(filmId);
+            likeMatrix.addLike(filmId, userId);
+            trendingTracker.addLike(filmId, timestamp);
+            searchSuggestIndex.updateFilmLikes(filmId);
+            searchResultCache.bumpVersion();
+            eventRepository.addEvent(timestamp, userId, EventType.LIKE.toString(),
+                    Operation.ADD.toString(), filmId);
+        }
     }
 
     public void removeLike(Long filmId, Long userId) {
-        Optional<Film> filmOpt = filmStorage.getFilmById(filmId);
-        if (filmOpt.isEmpty()) {
+        if (!filmStorage.exists(filmId)) {
             throw new NotFoundException("Фильм не найден с ID: " + filmId);
         }
 
-        Optional<User> userOpt = userStorage.getUserById(userId);
-        if (userOpt.isEmpty()) {
+        if (!userStorage.exists(userId)) {
             throw new NotFoundException("Пользователь не найден с ID: " + userId);
         }
 
-        filmStorage.removeLike(filmId, userId);
-
-        eventRepository.addEvent(Instant.now().toEpochMilli(), userId, EventType.LIKE.toString(),
-                Operation.REMOVE.toString(), filmId);
+        Optional<Long> likedAt = filmStorage.getLikeTime(filmId, userId);
+        if (filmStorage.removeLike(filmId, userId)) {
+            popularityLeaderboard.decrement(filmId);
+            likeMatrix.removeLike(filmId, userId);
+            trendingTracker.removeLike(filmId, likedAt.orElse(null));
+            searchSuggestIndex.updateFilmLikes(filmId);
+            searchResultCache.bumpVersion();
+            eventRepository.addEvent(Instant.now().toEpochMilli(), userId, EventType.LIKE.toString(),
+                    Operation.REMOVE.toString(), filmId);
+        }
     }
 
     public List<FilmDto> findFilmsByDirectorId(Long directorId, SortBy sortBy) {
         directorService.getDirectorById(directorId);
-        return filmStorage.getFilmsByDirectorId(directorId, sortBy).stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
-                .collect(Collectors.toList());
+        return filmHydrationService.hydrate(filmStorage.getFilmsByDirectorId(directorId, sortBy));
     }
 
-    public List<FilmDto> getFilmsByQuery(String query, List<SearchBy> searchBys) {
-        return ((FilmRepository) filmStorage).getFilmsByQuery(query, searchBys).stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
-                .collect(Collectors.toList());
+    public List<FilmDto> getFilmsByQuery(String query, List<SearchBy> searchBys, int fuzzy) {
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(searchFilmIds(query, searchBys, fuzzy)));
     }
 
-    public List<FilmDto> getCommonFilms(Long userId, Long friendId) {
-        List<Film> commonFilms = filmStorage.getCommonLikedFilms(userId, friendId);
+    public SearchResultDto getFilmsByQueryWithFacets(String query, List<SearchBy> searchBys, int fuzzy) {
+        List<Long> filmIds = query.isBlank() ? popularityLeaderboard.getTopFilmIds(Integer.MAX_VALUE)
+                : searchFilmIds(query, searchBys, fuzzy);
+        return new SearchResultDto(filmHydrationService.hydrate(filmStorage.getFilmsByIds(filmIds)),
+                filmFacetIndex.count(filmIds));
+    }
 
-        for (Film film : commonFilms) {
-            film.setGenres(genreService.getGenresForFilm(film.getId()));
-            film.setDirectors(directorService.getDirectorsByFilmId(film.getId()));
-        }
+    public List<SuggestionDto> getSuggestions(String prefix, int count) {
+        return searchSuggestIndex.suggest(prefix, count);
+    }
 
-        return commonFilms.stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
-                .collect(Collectors.toList());
+    public int getMaxSuggestions() {
+        return searchSuggestIndex.getMaxCount();
+    }
+
+    public List<FilmDto> getCommonFilms(Long userId, Long friendId) {
+        return filmHydrationService.hydrate(filmStorage.getCommonLikedFilms(userId, friendId));
     }
 
     public List<FilmDto> getTopPopularFilms(int count, Long genreId, Integer year) {
-        List<Film> films = filmRepository.findPopularFilmsByGenreAndYear(count, genreId, year);
-        return films.stream()
-                .map(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-                    Set<Genre> genres = genreService.getGenresForFilm(film.getId());
-                    Set<Director> directors = directorService.getDirectorsByFilmId(film.getId());
-                    film.setGenres(genres);
-                    film.setDirectors(directors);
-                    return FilmMapper.mapToFilmDto(film);
-                })
-                .collect(Collectors.toList());
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(
+                popularityLeaderboard.getTopFilmIds(count, genreId, year)));
+    }
+
+    public List<FilmDto> getTrendingFilms(TrendingWindow window, int count) {
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(trendingTracker.getTopFilmIds(window, count)));
+    }
+
+    private List<Long> searchFilmIds(String query, List<SearchBy> searchBys, int fuzzy) {
+        return searchResultCache.get(query, searchBys, fuzzy,
+                text -> filmSearchIndex.search(text, searchBys, fuzzy));
+    }
+
+    private Film findFilmById(Long filmId) {
+        return filmStorage.getFilmById(filmId)
+                .orElseThrow(() -> new NotFoundException("Фильм не найден с ID: " + filmId));
+    }
+
+    private void revertLike(LikeWriteBuffer.DroppedLike dropped) {
+        Long filmId = dropped.filmId();
+        Long userId = dropped.userId();
+        LikeWriteBuffer.PendingLike like = dropped.like();
+        if (like.liked() == like.persisted()) {
+            if (like.liked()) {
+                trendingTracker.removeLike(filmId, like.likedAt());
+                if (like.persistedAt() != null) {
+                    trendingTracker.addLike(filmId, like.persistedAt());
+                }
+            }
+            return;
+        }
+        Operation operation;
+        if (like.liked()) {
+            popularityLeaderboard.decrement(filmId);
+            likeMatrix.removeLike(filmId, userId);
+            trendingTracker.removeLike(filmId, like.likedAt());
+            operation = Operation.REMOVE;
+        } else {
+            popularityLeaderboard.increment(filmId);
+            likeMatrix.addLike(filmId, userId);
+            if (like.persistedAt() != null) {
+                trendingTracker.addLike(filmId, like.persistedAt());
+            }
+            operation = Operation.ADD;
+        }
+        searchSuggestIndex.updateFilmLikes(filmId);
+        searchResultCache.bumpVersion();
+        log.warn("Отменены изменения индексов для отброшенного лайка фильма {} пользователем {}", filmId, userId);
+        eventRepository.addEvent(Instant.now().toEpochMilli(), userId, EventType.LIKE.toString(),
+                operation.toString(), filmId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.service;
+
+public enum RecommendationEngine {
+    MATRIX,
+    SQL
+}
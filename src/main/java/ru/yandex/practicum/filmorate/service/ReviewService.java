@@ -32,8 +32,8 @@ public class ReviewService {
     final EventRepository eventRepository;
     final JdbcTemplate jdbcTemplate;
 
-    public ReviewService(ReviewRepository reviewRepository, @Qualifier("dbStorage") FilmStorage filmStorage,
-                         @Qualifier("dbStorage") UserStorage userStorage, EventRepository eventRepository, JdbcTemplate jdbcTemplate) {
+    public ReviewService(ReviewRepository reviewRepository, @Qualifier("cachedStorage") FilmStorage filmStorage,
+                         @Qualifier("cachedStorage") UserStorage userStorage, EventRepository eventRepository, JdbcTemplate jdbcTemplate) {
         this.reviewRepository = reviewRepository;
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
@@ -48,13 +48,15 @@ public class ReviewService {
 
         Long filmId = review.getFilmId();
 
-        filmStorage.getFilmById(filmId)
-                .orElseThrow(() -> new NotFoundException("Фильм не найден с ID: " + filmId));
+        if (!filmStorage.exists(filmId)) {
+            throw new NotFoundException("Фильм не найден с ID: " + filmId);
+        }
 
         Long userId = review.getUserId();
 
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден с ID: " + userId));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
         review = reviewRepository.create(review);
         log.info("Добавлен отзыв в БД {}", review);
@@ -117,8 +119,9 @@ public class ReviewService {
         reviewRepository.getReviewById(reviewId)
                 .orElseThrow(() -> new NotFoundException("Отзыв не найден с ID: " + reviewId));
 
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден с ID: " + userId));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
         reviewRepository.addLike(reviewId);
 
@@ -130,8 +133,9 @@ public class ReviewService {
         reviewRepository.getReviewById(reviewId)
                 .orElseThrow(() -> new NotFoundException("Отзыв не найден с ID: " + reviewId));
 
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден с ID: " + userId));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
         if (eventRepository.existsLikeOnReviewByUser(userId, reviewId)) {
             reviewRepository.removeLike(reviewId);
@@ -145,8 +149,9 @@ public class ReviewService {
         reviewRepository.getReviewById(reviewId)
                 .orElseThrow(() -> new NotFoundException("Отзыв не найден с ID: " + reviewId));
 
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден с ID: " + userId));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
         reviewRepository.removeLike(reviewId);
     }
@@ -155,8 +160,9 @@ public class ReviewService {
         reviewRepository.getReviewById(reviewId)
                 .orElseThrow(() -> new NotFoundException("Отзыв не найден с ID: " + reviewId));
 
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден с ID: " + userId));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException("Пользователь не найден с ID: " + userId);
+        }
 
         reviewRepository.removeDislike(reviewId);
     }
@@ -4,10 +4,10 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.EventRepository;
 import ru.yandex.practicum.filmorate.dal.FriendshipRepository;
-import ru.yandex.practicum.filmorate.dal.UserRepository;
 import ru.yandex.practicum.filmorate.dal.dto.*;
 import ru.yandex.practicum.filmorate.exceptions.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
@@ -15,9 +15,14 @@ import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
 import ru.yandex.practicum.filmorate.model.EventType;
 import ru.yandex.practicum.filmorate.model.Operation;
-import ru.yandex.practicum.filmorate.model.Rating;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.SearchResultCache;
+import ru.yandex.practicum.filmorate.storage.film.SearchSuggestIndex;
+import ru.yandex.practicum.filmorate.storage.film.TrendingTracker;
+import ru.yandex.practicum.filmorate.storage.user.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.user.RecommendationStore;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.Instant;
@@ -35,20 +40,37 @@ public class UserService {
     final FriendshipRepository friendshipRepository;
     final FilmStorage filmStorage;
     final EventRepository eventRepository;
-    final GenreService genreService;
-    final RatingService ratingService;
-    final DirectorService directorService;
-
-    public UserService(@Qualifier("dbStorage") UserStorage userStorage, FriendshipRepository friendshipRepository,
-                       @Qualifier("dbStorage") FilmStorage filmStorage, EventRepository eventRepository,
-                       GenreService genreService, RatingService ratingService, DirectorService directorService) {
+    final FilmHydrationService filmHydrationService;
+    final PopularityLeaderboard popularityLeaderboard;
+    final TrendingTracker trendingTracker;
+    final SearchSuggestIndex searchSuggestIndex;
+    final SearchResultCache searchResultCache;
+    final LikeMatrix likeMatrix;
+    final RecommendationStore recommendationStore;
+    final RecommendationEngine recommendationEngine;
+    final int recommendationNeighbours;
+
+    public UserService(@Qualifier("cachedStorage") UserStorage userStorage, FriendshipRepository friendshipRepository,
+                       @Qualifier("cachedStorage") FilmStorage filmStorage, EventRepository eventRepository,
+                       FilmHydrationService filmHydrationService, PopularityLeaderboard popularityLeaderboard,
+                       TrendingTracker trendingTracker, SearchSuggestIndex searchSuggestIndex,
+                       SearchResultCache searchResultCache, LikeMatrix likeMatrix,
+                       RecommendationStore recommendationStore,
+                       @Value("${filmorate.recommendations.engine:matrix}") String recommendationEngine,
+                       @Value("${filmorate.recommendations.neighbours:10}") int recommendationNeighbours) {
         this.userStorage = userStorage;
         this.friendshipRepository = friendshipRepository;
         this.filmStorage = filmStorage;
         this.eventRepository = eventRepository;
-        this.directorService = directorService;
-        this.ratingService = ratingService;
-        this.genreService = genreService;
+        this.filmHydrationService = filmHydrationService;
+        this.popularityLeaderboard = popularityLeaderboard;
+        this.trendingTracker = trendingTracker;
+        this.searchSuggestIndex = searchSuggestIndex;
+        this.searchResultCache = searchResultCache;
+        this.likeMatrix = likeMatrix;
+        this.recommendationStore = recommendationStore;
+        this.recommendationEngine = RecommendationEngine.valueOf(recommendationEngine.toUpperCase());
+        this.recommendationNeighbours = recommendationNeighbours;
     }
 
     public UserDto createUser(NewUserRequest request) {
@@ -88,10 +110,21 @@ public class UserService {
     }
 
     public void deleteUser(Long userId) {
-        if (userStorage.getUserById(userId).isEmpty()) {
+        if (!userStorage.exists(userId)) {
             throw new NotFoundException("Пользователь не найден");
         }
-        ((UserRepository) userStorage).deleteUserById(userId);
+        Map<Long, Long> likes = filmStorage.getLikeTimesByUser(userId);
+        userStorage.deleteUserById(userId);
+        likeMatrix.removeUser(userId);
+        recommendationStore.removeUser(userId, likes.keySet());
+        likes.forEach((filmId, likedAt) -> {
+            popularityLeaderboard.decrement(filmId);
+            trendingTracker.removeLike(filmId, likedAt);
+            searchSuggestIndex.updateFilmLikes(filmId);
+        });
+        if (!likes.isEmpty()) {
+            searchResultCache.bumpVersion();
+        }
     }
 
 
@@ -102,14 +135,12 @@ public class UserService {
         User friend = userStorage.getUserById(friendId)
                 .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", friendId)));
 
-        if (friendshipRepository.friendshipExists(userId, friendId)) {
+        if (!friendshipRepository.addFriendship(userId, friendId)) {
             throw new ConditionsNotMetException(
                     String.format("Пользователь с ID - %d уже есть в списке друзей у пользователся с ID - %d",
                             friendId, userId));
         }
 
-        friendshipRepository.addFriendship(userId, friendId);
-
         if (user.getFriends() == null) {
             user.setFriends(new ArrayList<>());
         }
@@ -122,8 +153,9 @@ public class UserService {
     }
 
     public List<UserDto> getFriends(Long userId) {
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", userId)));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", userId));
+        }
 
         List<Long> friends = friendshipRepository.findFriendsByUser(userId);
 
@@ -135,28 +167,30 @@ public class UserService {
     }
 
     public void removeFriend(Long userId, Long friendId) {
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", userId)));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", userId));
+        }
 
-        userStorage.getUserById(friendId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", friendId)));
+        if (!userStorage.exists(friendId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", friendId));
+        }
 
-        if (!(friendshipRepository.friendshipExists(userId, friendId))) {
+        if (!friendshipRepository.removeFriendship(userId, friendId)) {
             return;
         }
 
-        friendshipRepository.removeFriendship(userId, friendId);
-
         eventRepository.addEvent(Instant.now().toEpochMilli(), userId, EventType.FRIEND.toString(),
                 Operation.REMOVE.toString(), friendId);
     }
 
     public List<UserDto> getCommonFriend(Long userId, Long friendId) {
-        userStorage.getUserById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", userId)));
+        if (!userStorage.exists(userId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", userId));
+        }
 
-        userStorage.getUserById(friendId)
-                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с ID - %d не найден", friendId)));
+        if (!userStorage.exists(friendId)) {
+            throw new NotFoundException(String.format("Пользователь с ID - %d не найден", friendId));
+        }
 
         List<Long> commonFriends = friendshipRepository.findCommonFriends(userId, friendId);
 
@@ -168,48 +202,15 @@ public class UserService {
     }
 
     public List<FilmDto> getRecommendations(Long userId) {
-        List<Long> userLikedFilms = filmStorage.getLikedFilmsByUser(userId);
-        if (userLikedFilms.isEmpty()) return List.of();
-
-        List<Long> similarUsers = filmStorage.getUsersLikedSameFilms(userLikedFilms, userId);
-        if (similarUsers.isEmpty()) return List.of();
-
-        Map<Long, Integer> userOverlap = new HashMap<>();
-
-        for (Long otherUserId : similarUsers) {
-            List<Long> otherLikedFilms = filmStorage.getLikedFilmsByUser(otherUserId);
-            int overlap = (int) otherLikedFilms.stream()
-                    .filter(userLikedFilms::contains)
-                    .count();
-            userOverlap.put(otherUserId, overlap);
+        if (recommendationEngine == RecommendationEngine.SQL) {
+            return filmStorage.getRecommendedFilms(userId, recommendationNeighbours).stream()
+                    .map(FilmMapper::mapToFilmDto)
+                    .collect(Collectors.toList());
         }
-
-        Long bestMatchUser = userOverlap.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        if (bestMatchUser == null) return List.of();
-
-        List<Long> recommendedIds = filmStorage.getRecommendedFilmIds(userId, bestMatchUser);
-
-        return recommendedIds.stream()
-                .map(filmStorage::getFilmById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .peek(film -> {
-                    RatingDto mpaDto = ratingService.getRatingById(film.getMpa().getId());
-                    Rating mpa = new Rating();
-                    mpa.setId(mpaDto.getId());
-                    mpa.setName(mpaDto.getName());
-                    film.setMpa(mpa);
-
-                    film.setGenres(genreService.getGenresForFilm(film.getId()));
-                    film.setDirectors(directorService.getDirectorsByFilmId(film.getId()));
-                })
-                .map(FilmMapper::mapToFilmDto)
-                .collect(Collectors.toList());
-        //изменен данный метод, проблемы с крайним коммитом
+        List<Long> filmIds = recommendationStore.isEnabled()
+                ? recommendationStore.getRecommendedFilmIds(userId)
+                : likeMatrix.getRecommendedFilmIds(userId);
+        return filmHydrationService.hydrate(filmStorage.getFilmsByIds(filmIds));
     }
 
 
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.storage.director;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.storage.cache.LruCache;
+import ru.yandex.practicum.filmorate.storage.cache.LruCacheMetrics;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DirectorCache implements MeterBinder {
+    final LruCache<Long, Director> directors;
+    final LruCache<Long, List<Long>> filmDirectorIds;
+
+    public DirectorCache(@Value("${filmorate.cache.directors.capacity:10000}") int directorsCapacity,
+                         @Value("${filmorate.cache.film-directors.capacity:100000}") int filmDirectorsCapacity) {
+        this.directors = new LruCache<>(directorsCapacity);
+        this.filmDirectorIds = new LruCache<>(filmDirectorsCapacity);
+    }
+
+    public Optional<Director> getDirector(Long directorId) {
+        return Optional.ofNullable(directors.get(directorId));
+    }
+
+    public void putDirector(Director director) {
+        directors.put(director.getId(), director);
+    }
+
+    public void evictDirector(Long directorId) {
+        directors.invalidate(directorId);
+        filmDirectorIds.invalidateIf((filmId, directorIds) -> directorIds.contains(directorId));
+    }
+
+    public Optional<List<Long>> getDirectorIds(Long filmId) {
+        return Optional.ofNullable(filmDirectorIds.get(filmId));
+    }
+
+    public void putFilmDirectors(Long filmId, Collection<Director> filmDirectors) {
+        filmDirectorIds.put(filmId, filmDirectors.stream()
+                .map(Director::getId)
+                .distinct()
+                .sorted()
+                .toList());
+    }
+
+    public void evictFilm(Long filmId) {
+        filmDirectorIds.invalidate(filmId);
+    }
+
+    public LruCache<Long, Director> getDirectors() {
+        return directors;
+    }
+
+    public LruCache<Long, List<Long>> getFilmDirectorIds() {
+        return filmDirectorIds;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new LruCacheMetrics(directors, "directors").bindTo(registry);
+        new LruCacheMetrics(filmDirectorIds, "film-directors").bindTo(registry);
+    }
+}
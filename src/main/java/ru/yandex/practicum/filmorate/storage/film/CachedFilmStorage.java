@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.SortBy;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.index.LiveIdIndex;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Qualifier("cachedStorage")
+public class CachedFilmStorage implements FilmStorage {
+    final FilmRepository filmRepository;
+    final FilmCache filmCache;
+    final LiveIdIndex filmIds = new LiveIdIndex();
+
+    @PostConstruct
+    public void loadFilmIds() {
+        filmIds.reset(filmRepository.getFilmIds());
+        log.info("Загружено {} ID фильмов", filmIds.size());
+    }
+
+    @Override
+    public Film create(Film film) {
+        Film created = filmRepository.create(film);
+        filmIds.add(created.getId());
+        return created;
+    }
+
+    @Override
+    public Film update(Film film) {
+        Film updated = filmRepository.update(film);
+        filmCache.evict(film.getId());
+        return updated;
+    }
+
+    @Override
+    public boolean delete(Film film) {
+        boolean deleted = filmRepository.delete(film);
+        filmIds.remove(film.getId());
+        filmCache.evict(film.getId());
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteFilmWithRelations(Long filmId) {
+        boolean deleted = filmRepository.deleteFilmWithRelations(filmId);
+        filmIds.remove(filmId);
+        filmCache.evict(filmId);
+        return deleted;
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Long id) {
+        if (!filmIds.contains(id)) {
+            return Optional.empty();
+        }
+        Optional<Film> cached = filmCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long version = filmCache.getVersion();
+        Optional<Film> film = filmRepository.getFilmProjectionById(id);
+        film.ifPresent(loaded -> filmCache.put(loaded, version));
+        return film;
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return filmIds.contains(id);
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmRepository.getFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return filmRepository.getFilmsByIds(ids);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(Integer countFilms) {
+        return filmRepository.getPopularFilms(countFilms);
+    }
+
+    @Override
+    public boolean addLike(Long filmId, Long userId, long likedAt) {
+        return filmRepository.addLike(filmId, userId, likedAt);
+    }
+
+    @Override
+    public boolean removeLike(Long filmId, Long userId) {
+        return filmRepository.removeLike(filmId, userId);
+    }
+
+    @Override
+    public List<Film> getFilmsByDirectorId(Long directorId, SortBy sortBy) {
+        return filmRepository.getFilmsByDirectorId(directorId, sortBy);
+    }
+
+    @Override
+    public List<Long> getLikedFilmsByUser(Long userId) {
+        return filmRepository.getLikedFilmsByUser(userId);
+    }
+
+    @Override
+    public Optional<Long> getLikeTime(Long filmId, Long userId) {
+        return filmRepository.getLikeTime(filmId, userId);
+    }
+
+    @Override
+    public Map<Long, Long> getLikeTimesByUser(Long userId) {
+        return filmRepository.getLikeTimesByUser(userId);
+    }
+
+    @Override
+    public List<Long> getUsersLikedSameFilms(List<Long> filmsIds, Long ownUserId) {
+        return filmRepository.getUsersLikedSameFilms(filmsIds, ownUserId);
+    }
+
+    @Override
+    public List<Long> getRecommendedFilmIds(Long userId, Long similarUserId) {
+        return filmRepository.getRecommendedFilmIds(userId, similarUserId);
+    }
+
+    @Override
+    public List<Film> getRecommendedFilms(Long userId, int neighbours) {
+        return filmRepository.getRecommendedFilms(userId, neighbours);
+    }
+
+    @Override
+    public List<Film> getCommonLikedFilms(Long userId, Long friendId) {
+        return filmRepository.getCommonLikedFilms(userId, friendId);
+    }
+}
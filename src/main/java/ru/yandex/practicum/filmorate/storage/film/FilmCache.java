@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.cache.LruCache;
+import ru.yandex.practicum.filmorate.storage.cache.LruCacheMetrics;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FilmCache implements MeterBinder {
+    final LruCache<Long, Film> films;
+    final AtomicLong version = new AtomicLong();
+
+    public FilmCache(@Value("${filmorate.cache.films.capacity:10000}") int capacity) {
+        this.films = new LruCache<>(capacity);
+    }
+
+    public Optional<Film> get(Long filmId) {
+        return Optional.ofNullable(films.get(filmId)).map(FilmCache::copy);
+    }
+
+    public boolean put(Film film, long readVersion) {
+        return films.putIf(film.getId(), copy(film), () -> version.get() == readVersion);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void evict(Long filmId) {
+        version.incrementAndGet();
+        films.invalidate(filmId);
+    }
+
+    public void evictByDirector(Long directorId) {
+        version.incrementAndGet();
+        films.invalidateIf((filmId, film) -> film.getDirectors().stream()
+                .anyMatch(director -> directorId.equals(director.getId())));
+    }
+
+    public LruCache<Long, Film> getFilms() {
+        return films;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new LruCacheMetrics(films, "films").bindTo(registry);
+    }
+
+    private static Film copy(Film film) {
+        Rating mpa = new Rating();
+        mpa.setId(film.getMpa().getId());
+        mpa.setName(film.getMpa().getName());
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), mpa, new HashSet<>(film.getGenres()), new HashSet<>(film.getDirectors()));
+    }
+}
@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.FilmSortBy;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dal.dto.FilmFilterRequest;
+import ru.yandex.practicum.filmorate.dal.dto.SearchFacetsDto;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.index.BitmapIndex;
+import java.util.*;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FilmFacetIndex {
+    final FilmRepository filmRepository;
+    final PopularityLeaderboard popularityLeaderboard;
+    final BitSet filmIds = new BitSet();
+    final BitmapIndex<Long> genres = new BitmapIndex<>();
+    final BitmapIndex<Long> ratings = new BitmapIndex<>();
+    final BitmapIndex<Integer> decades = new BitmapIndex<>();
+    final BitmapIndex<Long> directors = new BitmapIndex<>();
+    final BitmapIndex<Integer> years = new BitmapIndex<>();
+    final BitmapIndex<Integer> durations = new BitmapIndex<>();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Film> films = filmRepository.getFilmProjections();
+        synchronized (this) {
+            filmIds.clear();
+            genres.clear();
+            ratings.clear();
+            decades.clear();
+            directors.clear();
+            years.clear();
+            durations.clear();
+            films.forEach(this::putFilm);
+        }
+        log.info("Индекс фасетов построен для {} фильмов", films.size());
+    }
+
+    public synchronized void addFilm(Film film) {
+        putFilm(film);
+    }
+
+    public synchronized void updateFilm(Film film) {
+        putFilm(film);
+    }
+
+    public synchronized void removeFilm(Long filmId) {
+        if (filmId != null && filmId >= 0 && filmId <= Integer.MAX_VALUE) {
+            filmIds.clear(filmId.intValue());
+        }
+        genres.remove(filmId);
+        ratings.remove(filmId);
+        decades.remove(filmId);
+        directors.remove(filmId);
+        years.remove(filmId);
+        durations.remove(filmId);
+    }
+
+    public synchronized void removeDirector(Long directorId) {
+        directors.removeValue(directorId);
+    }
+
+    public SearchFacetsDto count(Collection<Long> filmIds) {
+        BitSet result = BitmapIndex.toBitSet(filmIds);
+        synchronized (this) {
+            return new SearchFacetsDto(genres.count(result), ratings.count(result), decades.count(result));
+        }
+    }
+
+    public List<Long> find(FilmFilterRequest filter, FilmSortBy sortBy, int count) {
+        BitSet matches;
+        synchronized (this) {
+            matches = match(filter);
+            if (sortBy == FilmSortBy.YEAR) {
+                return years.select(matches, count);
+            }
+            if (sortBy == FilmSortBy.DURATION) {
+                return durations.select(matches, count);
+            }
+        }
+        if (sortBy == FilmSortBy.LIKES) {
+            return popularityLeaderboard.getTopFilmIds(count, filmId -> matches.get((int) filmId));
+        }
+        return matches.stream()
+                .limit(count)
+                .mapToObj(Long::valueOf)
+                .toList();
+    }
+
+    private BitSet match(FilmFilterRequest filter) {
+        BitSet matches = (BitSet) filmIds.clone();
+        if (filter.getGenreId() != null) {
+            matches.and(genres.union(filter.getGenreId()));
+        }
+        if (filter.getMpaId() != null) {
+            matches.and(ratings.union(filter.getMpaId()));
+        }
+        if (filter.getDirectorId() != null) {
+            matches.and(directors.union(filter.getDirectorId()));
+        }
+        if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+            matches.and(years.range(filter.getYearFrom(), filter.getYearTo()));
+        }
+        if (filter.getDurationFrom() != null || filter.getDurationTo() != null) {
+            matches.and(durations.range(filter.getDurationFrom(), filter.getDurationTo()));
+        }
+        return matches;
+    }
+
+    private void putFilm(Film film) {
+        List<Long> genreIds = new ArrayList<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(Genre::getId)
+                    .forEach(genreIds::add);
+        }
+        List<Long> directorIds = new ArrayList<>();
+        if (film.getDirectors() != null) {
+            film.getDirectors().stream()
+                    .map(Director::getId)
+                    .forEach(directorIds::add);
+        }
+        filmIds.set(film.getId().intValue());
+        genres.put(film.getId(), genreIds);
+        directors.put(film.getId(), directorIds);
+        ratings.put(film.getId(), film.getMpa() == null ? List.of() : Collections.singletonList(film.getMpa().getId()));
+        decades.put(film.getId(), film.getReleaseDate() == null ? List.of()
+                : List.of(film.getReleaseDate().getYear() / 10 * 10));
+        years.put(film.getId(), film.getReleaseDate() == null ? List.of()
+                : List.of(film.getReleaseDate().getYear()));
+        durations.put(film.getId(), film.getDuration() == null ? List.of() : List.of(film.getDuration()));
+    }
+}
@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.SearchBy;
+import ru.yandex.practicum.filmorate.dal.DirectorRepository;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.index.FuzzyIndex;
+import ru.yandex.practicum.filmorate.storage.index.TrigramIndex;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FilmSearchIndex {
+    final FilmRepository filmRepository;
+    final DirectorRepository directorRepository;
+    final PopularityLeaderboard popularityLeaderboard;
+    final TrigramIndex titles = new TrigramIndex();
+    final TrigramIndex directors = new TrigramIndex();
+    final FuzzyIndex fuzzyTitles = new FuzzyIndex();
+    final FuzzyIndex fuzzyDirectors = new FuzzyIndex();
+    final Map<Long, Set<Long>> filmDirectorIds = new HashMap<>();
+    final Map<Long, Set<Long>> directorFilmIds = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Director> allDirectors = directorRepository.getDirectors();
+        List<Film> films = filmRepository.getFilmProjections();
+        synchronized (this) {
+            titles.clear();
+            directors.clear();
+            fuzzyTitles.clear();
+            fuzzyDirectors.clear();
+            filmDirectorIds.clear();
+            directorFilmIds.clear();
+            allDirectors.forEach(this::putDirector);
+            films.forEach(this::putFilm);
+        }
+        log.info("Поисковый индекс построен: {} фильмов, {} режиссеров", films.size(), allDirectors.size());
+    }
+
+    public synchronized void addFilm(Film film) {
+        removeFilm(film.getId());
+        putFilm(film);
+    }
+
+    public synchronized void updateFilm(Film film) {
+        addFilm(film);
+    }
+
+    public synchronized void removeFilm(Long filmId) {
+        titles.remove(filmId);
+        fuzzyTitles.remove(filmId);
+        Set<Long> directorIds = filmDirectorIds.remove(filmId);
+        if (directorIds != null) {
+            directorIds.forEach(directorId -> unlink(directorId, filmId));
+        }
+    }
+
+    public synchronized void updateDirector(Director director) {
+        putDirector(director);
+    }
+
+    public synchronized void removeDirector(Long directorId) {
+        directors.remove(directorId);
+        fuzzyDirectors.remove(directorId);
+        Set<Long> filmIds = directorFilmIds.remove(directorId);
+        if (filmIds != null) {
+            for (Long filmId : filmIds) {
+                Set<Long> directorIds = filmDirectorIds.get(filmId);
+                if (directorIds != null) {
+                    directorIds.remove(directorId);
+                }
+            }
+        }
+    }
+
+    public List<Long> search(String query, Collection<SearchBy> searchBy) {
+        String text = normalize(query);
+        Set<Long> filmIds = new HashSet<>();
+        synchronized (this) {
+            if (searchBy.contains(SearchBy.TITLE)) {
+                filmIds.addAll(titles.find(text));
+            }
+            if (searchBy.contains(SearchBy.DIRECTOR)) {
+                directors.find(text).forEach(directorId ->
+                        filmIds.addAll(directorFilmIds.getOrDefault(directorId, Set.of())));
+            }
+        }
+        return rank(filmIds, Map.of());
+    }
+
+    public List<Long> search(String query, Collection<SearchBy> searchBy, int maxEdits) {
+        if (maxEdits == 0) {
+            return search(query, searchBy);
+        }
+        String text = normalize(query);
+        Map<Long, Integer> distances = new HashMap<>();
+        synchronized (this) {
+            if (searchBy.contains(SearchBy.TITLE)) {
+                fuzzyTitles.find(text, maxEdits).forEach((filmId, distance) ->
+                        distances.merge(filmId, distance, Math::min));
+            }
+            if (searchBy.contains(SearchBy.DIRECTOR)) {
+                fuzzyDirectors.find(text, maxEdits).forEach((directorId, distance) ->
+                        directorFilmIds.getOrDefault(directorId, Set.of()).forEach(filmId ->
+                                distances.merge(filmId, distance, Math::min)));
+            }
+        }
+        return rank(distances.keySet(), distances);
+    }
+
+    private List<Long> rank(Set<Long> filmIds, Map<Long, Integer> distances) {
+        Map<Long, Long> likes = filmIds.stream()
+                .collect(Collectors.toMap(filmId -> filmId, popularityLeaderboard::getLikes));
+        return filmIds.stream()
+                .sorted(Comparator.comparing((Long filmId) -> distances.getOrDefault(filmId, 0))
+                        .thenComparing(likes::get, Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .collect(Collectors.toList());
+    }
+
+    private void putFilm(Film film) {
+        List<String> title = film.getName() == null ? List.of() : List.of(normalize(film.getName()));
+        titles.put(film.getId(), title);
+        fuzzyTitles.put(film.getId(), title);
+        Set<Long> directorIds = new HashSet<>();
+        if (film.getDirectors() != null) {
+            for (Director director : film.getDirectors()) {
+                if (director.getFirstName() != null) {
+                    putDirector(director);
+                }
+                directorIds.add(director.getId());
+                directorFilmIds.computeIfAbsent(director.getId(), id -> new HashSet<>()).add(film.getId());
+            }
+        }
+        filmDirectorIds.put(film.getId(), directorIds);
+    }
+
+    private void putDirector(Director director) {
+        List<String> names = new ArrayList<>(2);
+        if (director.getFirstName() != null) {
+            names.add(normalize(director.getFirstName()));
+        }
+        if (director.getLastName() != null) {
+            names.add(normalize(director.getLastName()));
+        }
+        directors.put(director.getId(), names);
+        fuzzyDirectors.put(director.getId(), names);
+    }
+
+    private void unlink(Long directorId, Long filmId) {
+        Set<Long> filmIds = directorFilmIds.get(directorId);
+        if (filmIds != null) {
+            filmIds.remove(filmId);
+            if (filmIds.isEmpty()) {
+                directorFilmIds.remove(directorId);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+}
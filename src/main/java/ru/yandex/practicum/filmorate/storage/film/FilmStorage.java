@@ -2,7 +2,9 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.controller.SortBy;
 import ru.yandex.practicum.filmorate.model.Film;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface FilmStorage {
@@ -12,23 +14,35 @@ public interface FilmStorage {
 
     boolean delete(Film film);
 
+    boolean deleteFilmWithRelations(Long filmId);
+
     Optional<Film> getFilmById(Long id);
 
+    boolean exists(Long id);
+
     List<Film> getFilms();
 
+    List<Film> getFilmsByIds(Collection<Long> ids);
+
     List<Film> getPopularFilms(Integer countFilms);
 
-    void addLike(Long filmId, Long userId);
+    boolean addLike(Long filmId, Long userId, long likedAt);
 
-    void removeLike(Long filmId, Long userId);
+    boolean removeLike(Long filmId, Long userId);
 
     List<Film> getFilmsByDirectorId(Long directorId, SortBy sortBy);
 
     List<Long> getLikedFilmsByUser(Long userId);
 
+    Optional<Long> getLikeTime(Long filmId, Long userId);
+
+    Map<Long, Long> getLikeTimesByUser(Long userId);
+
     List<Long> getUsersLikedSameFilms(List<Long> filmsIds, Long ownUserId);
 
     List<Long> getRecommendedFilmIds(Long userId, Long similarUserId);
 
+    List<Film> getRecommendedFilms(Long userId, int neighbours);
+
     List<Film> getCommonLikedFilms(Long userId, Long friendId);
 }
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import java.util.*;
+import java.util.function.LongPredicate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PopularityLeaderboard {
+    static final Comparator<Entry> RANKING_ORDER = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+    static final Partition ALL_FILMS = new Partition(null, null);
+
+    final FilmRepository filmRepository;
+    final Map<Long, Entry> entries = new HashMap<>();
+    final Map<Partition, NavigableSet<Entry>> partitions = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        List<Film> films = filmRepository.getFilmProjections();
+        Map<Long, Long> likes = filmRepository.getLikesCounts();
+        synchronized (this) {
+            entries.clear();
+            partitions.clear();
+            films.forEach(film -> put(entryOf(film, likes.getOrDefault(film.getId(), 0L))));
+        }
+        log.info("Рейтинг популярности построен для {} фильмов", films.size());
+    }
+
+    public synchronized void addFilm(Film film) {
+        if (!entries.containsKey(film.getId())) {
+            put(entryOf(film, 0));
+        }
+    }
+
+    public synchronized void updateFilm(Film film) {
+        Entry entry = entries.get(film.getId());
+        if (entry != null) {
+            remove(entry);
+        }
+        put(entryOf(film, entry == null ? 0 : entry.likes()));
+    }
+
+    public synchronized void removeFilm(Long filmId) {
+        Entry entry = entries.get(filmId);
+        if (entry != null) {
+            remove(entry);
+        }
+    }
+
+    public void increment(Long filmId) {
+        adjust(filmId, 1);
+    }
+
+    public void decrement(Long filmId) {
+        adjust(filmId, -1);
+    }
+
+    public List<Long> getTopFilmIds(int count) {
+        return getTopFilmIds(count, null, null);
+    }
+
+    public synchronized List<Long> getTopFilmIds(int count, Long genreId, Integer year) {
+        NavigableSet<Entry> ranking = partitions.getOrDefault(new Partition(genreId, year),
+                Collections.emptyNavigableSet());
+        List<Long> filmIds = new ArrayList<>(Math.max(0, Math.min(count, ranking.size())));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            filmIds.add(iterator.next().filmId());
+        }
+        return filmIds;
+    }
+
+    public synchronized List<Long> getTopFilmIds(int count, LongPredicate filter) {
+        NavigableSet<Entry> ranking = partitions.getOrDefault(ALL_FILMS, Collections.emptyNavigableSet());
+        List<Long> filmIds = new ArrayList<>();
+        Iterator<Entry> iterator = ranking.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            long filmId = iterator.next().filmId();
+            if (filter.test(filmId)) {
+                filmIds.add(filmId);
+            }
+        }
+        return filmIds;
+    }
+
+    public synchronized long getLikes(Long filmId) {
+        Entry entry = entries.get(filmId);
+        return entry == null ? 0 : entry.likes();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public List<Long> findInconsistentFilmIds() {
+        Map<Long, Long> actual = filmRepository.getLikesCounts();
+        List<Long> mismatches = new ArrayList<>();
+        synchronized (this) {
+            actual.forEach((filmId, likes) -> {
+                Entry entry = entries.get(filmId);
+                if (entry == null || entry.likes() != likes) {
+                    mismatches.add(filmId);
+                }
+            });
+            entries.keySet().stream()
+                    .filter(filmId -> !actual.containsKey(filmId))
+                    .forEach(mismatches::add);
+        }
+        Collections.sort(mismatches);
+        return mismatches;
+    }
+
+    private synchronized void adjust(Long filmId, long delta) {
+        Entry entry = entries.get(filmId);
+        if (entry == null) {
+            log.warn("Фильм с ID - {} отсутствует в рейтинге популярности", filmId);
+            return;
+        }
+        remove(entry);
+        put(new Entry(filmId, Math.max(0, entry.likes() + delta), entry.year(), entry.genreIds()));
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.filmId(), entry);
+        for (Partition partition : partitionsOf(entry)) {
+            partitions.computeIfAbsent(partition, key -> new TreeSet<>(RANKING_ORDER)).add(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.filmId());
+        for (Partition partition : partitionsOf(entry)) {
+            NavigableSet<Entry> ranking = partitions.get(partition);
+            if (ranking != null) {
+                ranking.remove(entry);
+                if (ranking.isEmpty()) {
+                    partitions.remove(partition);
+                }
+            }
+        }
+    }
+
+    private static List<Partition> partitionsOf(Entry entry) {
+        List<Partition> filmPartitions = new ArrayList<>(2 + entry.genreIds().size() * 2);
+        filmPartitions.add(ALL_FILMS);
+        if (entry.year() != null) {
+            filmPartitions.add(new Partition(null, entry.year()));
+        }
+        for (Long genreId : entry.genreIds()) {
+            filmPartitions.add(new Partition(genreId, null));
+            if (entry.year() != null) {
+                filmPartitions.add(new Partition(genreId, entry.year()));
+            }
+        }
+        return filmPartitions;
+    }
+
+    private static Entry entryOf(Film film, long likes) {
+        Integer year = film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+        Set<Long> genreIds = new HashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(Genre::getId)
+                    .forEach(genreIds::add);
+        }
+        return new Entry(film.getId(), likes, year, Set.copyOf(genreIds));
+    }
+
+    private record Entry(long filmId, long likes, Integer year, Set<Long> genreIds) {
+    }
+
+    private record Partition(Long genreId, Integer year) {
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+@Component
+@Endpoint(id = "leaderboard")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PopularityLeaderboardEndpoint {
+    static final int MAX_REPORTED_MISMATCHES = 10;
+
+    final PopularityLeaderboard popularityLeaderboard;
+
+    @ReadOperation
+    public Report report() {
+        List<Long> mismatches = popularityLeaderboard.findInconsistentFilmIds();
+        return new Report(popularityLeaderboard.size(), popularityLeaderboard.getPartitionCount(), mismatches.size(),
+                mismatches.subList(0, Math.min(mismatches.size(), MAX_REPORTED_MISMATCHES)));
+    }
+
+    public record Report(int films, int partitions, int mismatches, List<Long> mismatchedFilmIds) {
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.SearchBy;
+import ru.yandex.practicum.filmorate.storage.cache.LruCache;
+import ru.yandex.practicum.filmorate.storage.cache.LruCacheMetrics;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SearchResultCache implements MeterBinder {
+    final LruCache<Key, Entry> results;
+    final long maxStalenessNanos;
+    final AtomicLong version = new AtomicLong();
+
+    public SearchResultCache(@Value("${filmorate.cache.search.capacity:1000}") int capacity,
+                             @Value("${filmorate.cache.search.max-staleness-ms:0}") long maxStalenessMs) {
+        this.results = new LruCache<>(capacity);
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000;
+    }
+
+    public List<Long> get(String query, Collection<SearchBy> searchBy, int fuzzy,
+                          Function<String, List<Long>> search) {
+        String text = normalize(query);
+        Key key = new Key(text, Set.copyOf(searchBy), fuzzy);
+        Entry cached = results.get(key, this::isFresh);
+        if (cached != null) {
+            return cached.filmIds();
+        }
+        long currentVersion = version.get();
+        long createdAt = System.nanoTime();
+        List<Long> filmIds = List.copyOf(search.apply(text));
+        results.put(key, new Entry(filmIds, currentVersion, createdAt));
+        return filmIds;
+    }
+
+    public void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public LruCache<Key, Entry> getResults() {
+        return results;
+    }
+
+    public static String normalize(String query) {
+        return query.trim().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new LruCacheMetrics(results, "search-results").bindTo(registry);
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry.version() == version.get()
+                || maxStalenessNanos > 0 && System.nanoTime() - entry.createdAt() <= maxStalenessNanos;
+    }
+
+    public record Key(String query, Set<SearchBy> searchBy, int fuzzy) {
+    }
+
+    public record Entry(List<Long> filmIds, long version, long createdAt) {
+    }
+}
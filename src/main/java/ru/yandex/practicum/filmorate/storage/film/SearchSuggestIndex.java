@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.DirectorRepository;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dal.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.index.PrefixIndex;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SearchSuggestIndex {
+    static final String FILM = "film";
+    static final String DIRECTOR = "director";
+
+    final FilmRepository filmRepository;
+    final DirectorRepository directorRepository;
+    final PopularityLeaderboard popularityLeaderboard;
+    final PrefixIndex<Suggestion> suggestions;
+    final Map<Long, Set<Long>> filmDirectorIds = new HashMap<>();
+    final Map<Long, Set<Long>> directorFilmIds = new HashMap<>();
+
+    public SearchSuggestIndex(FilmRepository filmRepository, DirectorRepository directorRepository,
+                              PopularityLeaderboard popularityLeaderboard,
+                              @Value("${filmorate.search.suggest.cache-size:10}") int cacheSize) {
+        this.filmRepository = filmRepository;
+        this.directorRepository = directorRepository;
+        this.popularityLeaderboard = popularityLeaderboard;
+        this.suggestions = new PrefixIndex<>(cacheSize, Comparator.comparing(Suggestion::type)
+                .thenComparingLong(Suggestion::id));
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Film> films = filmRepository.getFilmProjections();
+        List<Director> directors = directorRepository.getDirectors();
+        synchronized (this) {
+            suggestions.clear();
+            filmDirectorIds.clear();
+            directorFilmIds.clear();
+            films.forEach(this::putFilm);
+            directors.forEach(this::putDirector);
+        }
+        log.info("Индекс подсказок построен: {} фильмов, {} режиссеров", films.size(), directors.size());
+    }
+
+    public synchronized void addFilm(Film film) {
+        Set<Long> affected = new HashSet<>(unlinkFilm(film.getId()));
+        putFilm(film);
+        affected.addAll(filmDirectorIds.getOrDefault(film.getId(), Set.of()));
+        affected.forEach(this::refreshDirector);
+    }
+
+    public synchronized void updateFilm(Film film) {
+        addFilm(film);
+    }
+
+    public synchronized void removeFilm(Long filmId) {
+        suggestions.remove(new Suggestion(FILM, filmId));
+        unlinkFilm(filmId).forEach(this::refreshDirector);
+    }
+
+    public synchronized void updateFilmLikes(Long filmId) {
+        suggestions.updateScore(new Suggestion(FILM, filmId), popularityLeaderboard.getLikes(filmId));
+        filmDirectorIds.getOrDefault(filmId, Set.of()).forEach(this::refreshDirector);
+    }
+
+    public synchronized void updateDirector(Director director) {
+        putDirector(director);
+    }
+
+    public synchronized void removeDirector(Long directorId) {
+        suggestions.remove(new Suggestion(DIRECTOR, directorId));
+        Set<Long> filmIds = directorFilmIds.remove(directorId);
+        if (filmIds != null) {
+            for (Long filmId : filmIds) {
+                Set<Long> directorIds = filmDirectorIds.get(filmId);
+                if (directorIds != null) {
+                    directorIds.remove(directorId);
+                }
+            }
+        }
+    }
+
+    public synchronized List<SuggestionDto> suggest(String prefix, int count) {
+        return suggestions.find(prefix, count).stream()
+                .map(suggestion -> new SuggestionDto(suggestion.type(), suggestion.id(),
+                        suggestions.getText(suggestion).orElse(""), suggestions.getScore(suggestion)))
+                .collect(Collectors.toList());
+    }
+
+    public int getMaxCount() {
+        return suggestions.getCacheSize();
+    }
+
+    private void putFilm(Film film) {
+        if (film.getName() != null) {
+            suggestions.put(new Suggestion(FILM, film.getId()), film.getName(),
+                    popularityLeaderboard.getLikes(film.getId()));
+        }
+        Set<Long> directorIds = new HashSet<>();
+        if (film.getDirectors() != null) {
+            film.getDirectors().forEach(director -> {
+                directorIds.add(director.getId());
+                directorFilmIds.computeIfAbsent(director.getId(), id -> new HashSet<>()).add(film.getId());
+            });
+        }
+        filmDirectorIds.put(film.getId(), directorIds);
+    }
+
+    private void putDirector(Director director) {
+        if (director.getFirstName() == null) {
+            return;
+        }
+        String name = director.getLastName() == null || director.getLastName().isBlank()
+                ? director.getFirstName()
+                : director.getFirstName() + " " + director.getLastName();
+        suggestions.put(new Suggestion(DIRECTOR, director.getId()), name, directorLikes(director.getId()));
+    }
+
+    private Set<Long> unlinkFilm(Long filmId) {
+        Set<Long> directorIds = filmDirectorIds.remove(filmId);
+        if (directorIds == null) {
+            return Set.of();
+        }
+        for (Long directorId : directorIds) {
+            Set<Long> filmIds = directorFilmIds.get(directorId);
+            if (filmIds != null) {
+                filmIds.remove(filmId);
+            }
+        }
+        return directorIds;
+    }
+
+    private void refreshDirector(Long directorId) {
+        suggestions.updateScore(new Suggestion(DIRECTOR, directorId), directorLikes(directorId));
+    }
+
+    private long directorLikes(Long directorId) {
+        return directorFilmIds.getOrDefault(directorId, Set.of()).stream()
+                .mapToLong(popularityLeaderboard::getLikes)
+                .sum();
+    }
+
+    private record Suggestion(String type, long id) {
+    }
+}
@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.TrendingWindow;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TrendingTracker {
+    static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+
+    final FilmRepository filmRepository;
+    final Clock clock;
+    final long retainedBuckets;
+    final NavigableMap<Long, Map<Long, Integer>> buckets = new TreeMap<>();
+    final Map<TrendingWindow, WindowRanking> windows = new EnumMap<>(TrendingWindow.class);
+    long currentBucket;
+
+    @Autowired
+    public TrendingTracker(FilmRepository filmRepository) {
+        this(filmRepository, Clock.systemUTC());
+    }
+
+    TrendingTracker(FilmRepository filmRepository, Clock clock) {
+        this.filmRepository = filmRepository;
+        this.clock = clock;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new WindowRanking(window.getDuration().toMillis() / BUCKET_MILLIS));
+        }
+        this.retainedBuckets = windows.values().stream()
+                .mapToLong(WindowRanking::getBuckets)
+                .max()
+                .orElse(1);
+        this.currentBucket = bucketOf(clock.millis());
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        long now = bucketOf(clock.millis());
+        Map<Long, List<Long>> likes = filmRepository.getLikeTimesSince((now - retainedBuckets + 1) * BUCKET_MILLIS);
+        synchronized (this) {
+            buckets.clear();
+            windows.values().forEach(WindowRanking::clear);
+            currentBucket = now;
+            likes.forEach((filmId, times) -> times.forEach(likedAt -> record(filmId, bucketOf(likedAt), 1)));
+        }
+        log.info("Тренды построены по лайкам {} фильмов", likes.size());
+    }
+
+    public synchronized void addLike(Long filmId, long likedAt) {
+        advance();
+        record(filmId, bucketOf(likedAt), 1);
+    }
+
+    public synchronized void removeLike(Long filmId, Long likedAt) {
+        if (likedAt == null) {
+            return;
+        }
+        advance();
+        record(filmId, bucketOf(likedAt), -1);
+    }
+
+    public synchronized void removeFilm(Long filmId) {
+        buckets.values().forEach(counts -> counts.remove(filmId));
+        buckets.values().removeIf(Map::isEmpty);
+        windows.values().forEach(ranking -> ranking.remove(filmId));
+    }
+
+    public synchronized List<Long> getTopFilmIds(TrendingWindow window, int count) {
+        advance();
+        return windows.get(window).top(count);
+    }
+
+    public synchronized long getLikes(TrendingWindow window, Long filmId) {
+        advance();
+        return windows.get(window).getLikes(filmId);
+    }
+
+    private void record(Long filmId, long bucket, int delta) {
+        bucket = Math.min(bucket, currentBucket);
+        if (bucket <= currentBucket - retainedBuckets) {
+            return;
+        }
+        Map<Long, Integer> counts = buckets.computeIfAbsent(bucket, key -> new HashMap<>());
+        int likes = counts.getOrDefault(filmId, 0) + delta;
+        if (likes < 0) {
+            return;
+        }
+        if (likes == 0) {
+            counts.remove(filmId);
+            if (counts.isEmpty()) {
+                buckets.remove(bucket);
+            }
+        } else {
+            counts.put(filmId, likes);
+        }
+        for (WindowRanking ranking : windows.values()) {
+            if (bucket > currentBucket - ranking.getBuckets()) {
+                ranking.adjust(filmId, delta);
+            }
+        }
+    }
+
+    private void advance() {
+        long now = bucketOf(clock.millis());
+        if (now <= currentBucket) {
+            return;
+        }
+        for (WindowRanking ranking : windows.values()) {
+            buckets.subMap(currentBucket - ranking.getBuckets(), false, now - ranking.getBuckets(), true)
+                    .values()
+                    .forEach(counts -> counts.forEach((filmId, likes) -> ranking.adjust(filmId, -likes)));
+        }
+        currentBucket = now;
+        buckets.headMap(currentBucket - retainedBuckets, true).clear();
+    }
+
+    private static long bucketOf(long millis) {
+        return Math.floorDiv(millis, BUCKET_MILLIS);
+    }
+
+    private static class WindowRanking {
+        final long buckets;
+        final Map<Long, Entry> entries = new HashMap<>();
+        final NavigableSet<Entry> ranking = new TreeSet<>(Comparator.comparingLong(Entry::likes).reversed()
+                .thenComparingLong(Entry::filmId));
+
+        WindowRanking(long buckets) {
+            this.buckets = buckets;
+        }
+
+        long getBuckets() {
+            return buckets;
+        }
+
+        void adjust(Long filmId, long delta) {
+            long likes = getLikes(filmId) + delta;
+            remove(filmId);
+            if (likes > 0) {
+                Entry entry = new Entry(filmId, likes);
+                entries.put(filmId, entry);
+                ranking.add(entry);
+            }
+        }
+
+        void remove(Long filmId) {
+            Entry entry = entries.remove(filmId);
+            if (entry != null) {
+                ranking.remove(entry);
+            }
+        }
+
+        long getLikes(Long filmId) {
+            Entry entry = entries.get(filmId);
+            return entry == null ? 0 : entry.likes();
+        }
+
+        List<Long> top(int count) {
+            List<Long> filmIds = new ArrayList<>(Math.max(0, Math.min(count, ranking.size())));
+            Iterator<Entry> iterator = ranking.iterator();
+            while (filmIds.size() < count && iterator.hasNext()) {
+                filmIds.add(iterator.next().filmId());
+            }
+            return filmIds;
+        }
+
+        void clear() {
+            entries.clear();
+            ranking.clear();
+        }
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+}
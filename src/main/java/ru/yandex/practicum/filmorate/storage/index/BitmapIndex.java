@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+
+public class BitmapIndex<V extends Comparable<V>> {
+    private final NavigableMap<V, BitSet> bitmaps = new TreeMap<>();
+    private final Map<Integer, Set<V>> values = new HashMap<>();
+
+    public void put(Long id, Collection<V> idValues) {
+        int position = position(id);
+        remove(id);
+        Set<V> indexed = new HashSet<>(idValues);
+        indexed.remove(null);
+        if (indexed.isEmpty()) {
+            return;
+        }
+        values.put(position, indexed);
+        indexed.forEach(value -> bitmaps.computeIfAbsent(value, key -> new BitSet()).set(position));
+    }
+
+    public void remove(Long id) {
+        if (!isIndexable(id)) {
+            return;
+        }
+        Set<V> indexed = values.remove(id.intValue());
+        if (indexed == null) {
+            return;
+        }
+        for (V value : indexed) {
+            BitSet bitmap = bitmaps.get(value);
+            bitmap.clear(id.intValue());
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    public void removeValue(V value) {
+        BitSet bitmap = bitmaps.remove(value);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.stream().forEach(position -> {
+            Set<V> indexed = values.get(position);
+            indexed.remove(value);
+            if (indexed.isEmpty()) {
+                values.remove(position);
+            }
+        });
+    }
+
+    public BitSet get(V value) {
+        BitSet bitmap = bitmaps.get(value);
+        return bitmap == null ? new BitSet() : (BitSet) bitmap.clone();
+    }
+
+    public BitSet union(Collection<V> unionValues) {
+        BitSet union = new BitSet();
+        for (V value : unionValues) {
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    public BitSet range(V from, V to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return new BitSet();
+        }
+        NavigableMap<V, BitSet> range = bitmaps;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        BitSet union = new BitSet();
+        range.values().forEach(union::or);
+        return union;
+    }
+
+    public List<Long> select(BitSet filter, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, filter.cardinality()));
+        BitSet intersection = new BitSet();
+        for (BitSet bitmap : bitmaps.values()) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            intersection.clear();
+            intersection.or(bitmap);
+            intersection.and(filter);
+            for (int position = intersection.nextSetBit(0); position >= 0 && ids.size() < limit;
+                 position = intersection.nextSetBit(position + 1)) {
+                ids.add((long) position);
+            }
+        }
+        return ids;
+    }
+
+    public SortedMap<V, Integer> count(BitSet filter) {
+        SortedMap<V, Integer> counts = new TreeMap<>();
+        BitSet intersection = new BitSet();
+        bitmaps.forEach((value, bitmap) -> {
+            intersection.clear();
+            intersection.or(bitmap);
+            intersection.and(filter);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    public int size() {
+        return bitmaps.size();
+    }
+
+    public void clear() {
+        bitmaps.clear();
+        values.clear();
+    }
+
+    public static BitSet toBitSet(Collection<Long> ids) {
+        BitSet bitSet = new BitSet();
+        ids.forEach(id -> bitSet.set(position(id)));
+        return bitSet;
+    }
+
+    private static int position(Long id) {
+        if (!isIndexable(id)) {
+            throw new IllegalArgumentException("ID не может быть проиндексирован: " + id);
+        }
+        return id.intValue();
+    }
+
+    private static boolean isIndexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class CompressedIntList {
+    private byte[] data = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    public void add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Значение не может быть отрицательным: " + value);
+        }
+        if (value > last) {
+            append(value);
+            return;
+        }
+        int[] values = toArray();
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        encode(updated);
+    }
+
+    public boolean remove(int value) {
+        if (value < 0 || value > last) {
+            return false;
+        }
+        int[] values = toArray();
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return false;
+        }
+        int[] updated = new int[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(values, position + 1, updated, position, updated.length - position);
+        encode(updated);
+        return true;
+    }
+
+    public boolean contains(int value) {
+        Cursor cursor = new Cursor();
+        while (cursor.hasNext()) {
+            int current = cursor.next();
+            if (current >= value) {
+                return current == value;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int sizeInBytes() {
+        return length;
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        Cursor cursor = new Cursor();
+        for (int i = 0; i < size; i++) {
+            values[i] = cursor.next();
+        }
+        return values;
+    }
+
+    public static int[] intersect(List<CompressedIntList> lists) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        List<CompressedIntList> bySize = lists.stream()
+                .sorted(Comparator.comparingInt(CompressedIntList::size))
+                .toList();
+        int[] result = bySize.getFirst().toArray();
+        int count = result.length;
+        for (int i = 1; i < bySize.size() && count > 0; i++) {
+            Cursor cursor = bySize.get(i).new Cursor();
+            int kept = 0;
+            int current = -1;
+            for (int j = 0; j < count; j++) {
+                int value = result[j];
+                while (current < value && cursor.hasNext()) {
+                    current = cursor.next();
+                }
+                if (current == value) {
+                    result[kept++] = value;
+                } else if (current < value) {
+                    break;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void append(int value) {
+        int delta = value - last;
+        ensureCapacity(length + 5);
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = value;
+        size++;
+    }
+
+    private void encode(int[] values) {
+        data = new byte[Math.max(4, values.length * 2)];
+        length = 0;
+        size = 0;
+        last = -1;
+        for (int value : values) {
+            append(value);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+
+    private class Cursor {
+        int offset;
+        int value = -1;
+
+        boolean hasNext() {
+            return offset < length;
+        }
+
+        int next() {
+            int delta = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[offset++];
+                delta |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            value += delta;
+            return value;
+        }
+    }
+}
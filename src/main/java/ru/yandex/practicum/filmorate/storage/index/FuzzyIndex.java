@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+public class FuzzyIndex {
+    static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final LevenshteinTrie words = new LevenshteinTrie();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> values = new HashMap<>();
+
+    public void put(Long id, Collection<String> texts) {
+        remove(id);
+        Set<String> idWords = new HashSet<>();
+        texts.forEach(text -> idWords.addAll(wordsOf(text)));
+        values.put(id, idWords);
+        for (String word : idWords) {
+            postings.computeIfAbsent(word, w -> {
+                words.add(w);
+                return new HashSet<>();
+            }).add(id);
+        }
+    }
+
+    public void remove(Long id) {
+        Set<String> idWords = values.remove(id);
+        if (idWords == null) {
+            return;
+        }
+        for (String word : idWords) {
+            Set<Long> ids = postings.get(word);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(word);
+                words.remove(word);
+            }
+        }
+    }
+
+    public void clear() {
+        words.clear();
+        postings.clear();
+        values.clear();
+    }
+
+    public int vocabularySize() {
+        return words.size();
+    }
+
+    public Map<Long, Integer> find(String query, int maxEdits) {
+        List<String> queryWords = wordsOf(query);
+        if (queryWords.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Integer> distances = null;
+        for (String queryWord : queryWords) {
+            Map<Long, Integer> matches = new HashMap<>();
+            words.search(queryWord, maxEdits).forEach((word, distance) ->
+                    postings.getOrDefault(word, Set.of()).forEach(id -> matches.merge(id, distance, Math::min)));
+            if (distances == null) {
+                distances = matches;
+            } else {
+                Map<Long, Integer> combined = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : distances.entrySet()) {
+                    Integer distance = matches.get(entry.getKey());
+                    if (distance != null) {
+                        combined.put(entry.getKey(), entry.getValue() + distance);
+                    }
+                }
+                distances = combined;
+            }
+            if (distances.isEmpty()) {
+                break;
+            }
+        }
+        return distances;
+    }
+
+    private static List<String> wordsOf(String text) {
+        return Arrays.stream(WORD_SEPARATOR.split(text))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LevenshteinTrie {
+    private final Node root = new Node();
+    private int size;
+
+    public boolean add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.child(word.charAt(i), true);
+        }
+        if (node.word != null) {
+            return false;
+        }
+        node.word = word;
+        size++;
+        return true;
+    }
+
+    public boolean remove(String word) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].child(word.charAt(i), false);
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        Node node = path[word.length()];
+        if (node.word == null) {
+            return false;
+        }
+        node.word = null;
+        size--;
+        for (int i = word.length(); i > 0 && path[i].size == 0 && path[i].word == null; i--) {
+            path[i - 1].removeChild(word.charAt(i - 1));
+        }
+        return true;
+    }
+
+    public Map<String, Integer> search(String query, int maxDistance) {
+        Map<String, Integer> found = new HashMap<>();
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        if (root.word != null && row[query.length()] <= maxDistance) {
+            found.put(root.word, row[query.length()]);
+        }
+        for (int i = 0; i < root.size; i++) {
+            search(root.children[i], root.keys[i], query, row, maxDistance, found);
+        }
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root.keys = new char[0];
+        root.children = new Node[0];
+        root.size = 0;
+        root.word = null;
+        size = 0;
+    }
+
+    public static int distance(String left, String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    private static void search(Node node, char letter, String query, int[] previous, int maxDistance,
+                               Map<String, Integer> found) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int best = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int substitution = previous[j - 1] + (query.charAt(j - 1) == letter ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+            best = Math.min(best, row[j]);
+        }
+        if (node.word != null && row[query.length()] <= maxDistance) {
+            found.put(node.word, row[query.length()]);
+        }
+        if (best <= maxDistance) {
+            for (int i = 0; i < node.size; i++) {
+                search(node.children[i], node.keys[i], query, row, maxDistance, found);
+            }
+        }
+    }
+
+    private static class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int size;
+        String word;
+
+        void removeChild(char key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(children, i + 1, children, i, size - i - 1);
+                    children[--size] = null;
+                    return;
+                }
+            }
+        }
+
+        Node child(char key, boolean create) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            if (!create) {
+                return null;
+            }
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            Node node = new Node();
+            keys[size] = key;
+            children[size++] = node;
+            return node;
+        }
+    }
+}
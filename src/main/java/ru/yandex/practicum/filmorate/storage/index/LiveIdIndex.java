@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+public class LiveIdIndex {
+    private final BitSet ids = new BitSet();
+
+    public synchronized void reset(Collection<Long> liveIds) {
+        ids.clear();
+        liveIds.forEach(this::add);
+    }
+
+    public synchronized void add(Long id) {
+        if (!isIndexable(id)) {
+            throw new IllegalArgumentException("ID не может быть проиндексирован: " + id);
+        }
+        ids.set(id.intValue());
+    }
+
+    public synchronized void remove(Long id) {
+        if (isIndexable(id)) {
+            ids.clear(id.intValue());
+        }
+    }
+
+    public synchronized boolean contains(Long id) {
+        return isIndexable(id) && ids.get(id.intValue());
+    }
+
+    public synchronized int size() {
+        return ids.cardinality();
+    }
+
+    private static boolean isIndexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
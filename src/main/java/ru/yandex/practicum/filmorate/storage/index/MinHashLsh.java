@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+
+public class MinHashLsh {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+    private final Map<Integer, long[]> bandKeys = new HashMap<>();
+    private final List<Map<Long, SparseBitmap>> buckets = new ArrayList<>();
+
+    public MinHashLsh(int bands, int rows, long seed) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Количество полос и строк должно быть положительным: %d x %d", bands, rows));
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    public void add(int id, int element) {
+        int[] signature = signatures.get(id);
+        if (signature == null) {
+            signature = emptySignature();
+            signatures.put(id, signature);
+        }
+        boolean changed = false;
+        for (int i = 0; i < seeds.length; i++) {
+            int hash = hash(i, element);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+                changed = true;
+            }
+        }
+        if (changed) {
+            rebucket(id, signature);
+        }
+    }
+
+    public void remove(int id, int element, SparseBitmap remaining) {
+        int[] signature = signatures.get(id);
+        if (signature == null) {
+            return;
+        }
+        for (int i = 0; i < seeds.length; i++) {
+            if (signature[i] == hash(i, element)) {
+                put(id, remaining);
+                return;
+            }
+        }
+    }
+
+    public void put(int id, SparseBitmap elements) {
+        if (elements.isEmpty()) {
+            removeId(id);
+            return;
+        }
+        int[] signature = emptySignature();
+        elements.forEach(element -> {
+            for (int i = 0; i < seeds.length; i++) {
+                signature[i] = Math.min(signature[i], hash(i, element));
+            }
+        });
+        signatures.put(id, signature);
+        rebucket(id, signature);
+    }
+
+    public void removeId(int id) {
+        signatures.remove(id);
+        long[] keys = bandKeys.remove(id);
+        if (keys != null) {
+            for (int band = 0; band < bands; band++) {
+                leave(band, keys[band], id);
+            }
+        }
+    }
+
+    public BitSet candidates(int id) {
+        BitSet candidates = new BitSet();
+        long[] keys = bandKeys.get(id);
+        if (keys != null) {
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).get(keys[band]).orInto(candidates);
+            }
+            candidates.clear(id);
+        }
+        return candidates;
+    }
+
+    public double similarity(int left, int right) {
+        int[] leftSignature = signatures.get(left);
+        int[] rightSignature = signatures.get(right);
+        if (leftSignature == null || rightSignature == null) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < seeds.length; i++) {
+            if (leftSignature[i] == rightSignature[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / seeds.length;
+    }
+
+    public int size() {
+        return signatures.size();
+    }
+
+    public void clear() {
+        signatures.clear();
+        bandKeys.clear();
+        buckets.forEach(Map::clear);
+    }
+
+    private void rebucket(int id, int[] signature) {
+        long[] keys = bandKeys.get(id);
+        boolean indexed = keys != null;
+        if (!indexed) {
+            keys = new long[bands];
+            bandKeys.put(id, keys);
+        }
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * GOLDEN_GAMMA + signature[band * rows + row]);
+            }
+            if (indexed) {
+                if (keys[band] == key) {
+                    continue;
+                }
+                leave(band, keys[band], id);
+            }
+            keys[band] = key;
+            buckets.get(band).computeIfAbsent(key, bucket -> new SparseBitmap()).set(id);
+        }
+    }
+
+    private void leave(int band, long key, int id) {
+        SparseBitmap bucket = buckets.get(band).get(key);
+        if (bucket != null && bucket.clear(id) && bucket.isEmpty()) {
+            buckets.get(band).remove(key);
+        }
+    }
+
+    private int[] emptySignature() {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        return signature;
+    }
+
+    private int hash(int function, int element) {
+        return (int) (mix(element * GOLDEN_GAMMA + seeds[function]) >>> 32);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+
+public class PrefixIndex<K> {
+    private final int cacheSize;
+    private final Comparator<K> order;
+    private final Node<K> root = new Node<>();
+    private final Map<K, Item> items = new HashMap<>();
+
+    public PrefixIndex(int cacheSize, Comparator<? super K> tieBreak) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Размер кеша подсказок должен быть положительным: " + cacheSize);
+        }
+        this.cacheSize = cacheSize;
+        this.order = Comparator.comparingLong((K key) -> items.get(key).score()).reversed()
+                .thenComparing(key -> items.get(key).normalized())
+                .thenComparing(tieBreak);
+    }
+
+    public void put(K key, String text, long score) {
+        remove(key);
+        String normalized = normalize(text);
+        Item item = new Item(text, normalized, wordStarts(normalized), score);
+        items.put(key, item);
+        for (String path : item.paths()) {
+            Node<K> node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), c -> new Node<>());
+            }
+            node.terminals.add(key);
+            promote(path, key);
+        }
+    }
+
+    public void remove(K key) {
+        Item item = items.get(key);
+        if (item == null) {
+            return;
+        }
+        for (String path : item.paths()) {
+            Node<K> node = find(path);
+            if (node != null) {
+                node.terminals.remove(key);
+            }
+            refresh(path, key);
+        }
+        items.remove(key);
+    }
+
+    public void updateScore(K key, long score) {
+        Item item = items.get(key);
+        if (item == null || item.score() == score) {
+            return;
+        }
+        items.put(key, new Item(item.text(), item.normalized(), item.paths(), score));
+        if (score > item.score()) {
+            item.paths().forEach(path -> promote(path, key));
+        } else {
+            item.paths().forEach(path -> refresh(path, key));
+        }
+    }
+
+    public List<K> find(String prefix, int limit) {
+        Node<K> node = find(normalize(prefix));
+        if (node == null) {
+            return List.of();
+        }
+        return List.copyOf(node.top.subList(0, Math.min(Math.max(limit, 0), node.top.size())));
+    }
+
+    public Optional<String> getText(K key) {
+        return Optional.ofNullable(items.get(key)).map(Item::text);
+    }
+
+    public long getScore(K key) {
+        Item item = items.get(key);
+        return item == null ? 0 : item.score();
+    }
+
+    public boolean contains(K key) {
+        return items.containsKey(key);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void clear() {
+        root.children.clear();
+        root.terminals.clear();
+        root.top = List.of();
+        items.clear();
+    }
+
+    private Node<K> find(String path) {
+        Node<K> node = root;
+        for (int i = 0; i < path.length() && node != null; i++) {
+            node = node.children.get(path.charAt(i));
+        }
+        return node;
+    }
+
+    private void promote(String path, K key) {
+        List<Node<K>> nodes = pathOf(path);
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node<K> node = nodes.get(i);
+            List<K> top = new ArrayList<>(node.top);
+            if (!top.contains(key)) {
+                if (top.size() >= cacheSize && order.compare(key, top.getLast()) > 0) {
+                    return;
+                }
+                top.add(key);
+            }
+            top.sort(order);
+            node.top = List.copyOf(top.subList(0, Math.min(top.size(), cacheSize)));
+        }
+    }
+
+    private void refresh(String path, K key) {
+        List<Node<K>> nodes = pathOf(path);
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node<K> current = nodes.get(i);
+            if (i > 0 && current.terminals.isEmpty() && current.children.isEmpty()) {
+                nodes.get(i - 1).children.remove(path.charAt(i - 1));
+                continue;
+            }
+            List<K> top = topOf(current);
+            boolean unchanged = top.equals(current.top) && !top.contains(key);
+            current.top = top;
+            if (unchanged) {
+                return;
+            }
+        }
+    }
+
+    private List<Node<K>> pathOf(String path) {
+        List<Node<K>> nodes = new ArrayList<>(path.length() + 1);
+        Node<K> node = root;
+        nodes.add(node);
+        for (int i = 0; i < path.length(); i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private List<K> topOf(Node<K> node) {
+        Set<K> candidates = new HashSet<>(node.terminals);
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+        return candidates.stream()
+                .sorted(order)
+                .limit(cacheSize)
+                .toList();
+    }
+
+    private static List<String> wordStarts(String text) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+            if (i == 0 || wordStart) {
+                paths.add(text.substring(i));
+            }
+        }
+        return paths;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node<K> {
+        final Map<Character, Node<K>> children = new HashMap<>();
+        final Set<K> terminals = new HashSet<>();
+        List<K> top = List.of();
+    }
+
+    private record Item(String text, String normalized, List<String> paths, long score) {
+    }
+}
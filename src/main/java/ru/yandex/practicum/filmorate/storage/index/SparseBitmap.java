@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+public class SparseBitmap {
+    private int[] keys = new int[0];
+    private long[] words = new long[0];
+    private int size;
+    private int cardinality;
+
+    public boolean set(int position) {
+        int key = position >>> 6;
+        long bit = 1L << position;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            if ((words[index] & bit) != 0) {
+                return false;
+            }
+            words[index] |= bit;
+            cardinality++;
+            return true;
+        }
+        index = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(words, index, words, index + 1, size - index);
+        keys[index] = key;
+        words[index] = bit;
+        size++;
+        cardinality++;
+        return true;
+    }
+
+    public boolean clear(int position) {
+        int index = Arrays.binarySearch(keys, 0, size, position >>> 6);
+        long bit = 1L << position;
+        if (index < 0 || (words[index] & bit) == 0) {
+            return false;
+        }
+        words[index] &= ~bit;
+        cardinality--;
+        if (words[index] == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(words, index + 1, words, index, size - index - 1);
+            size--;
+        }
+        return true;
+    }
+
+    public boolean get(int position) {
+        int index = Arrays.binarySearch(keys, 0, size, position >>> 6);
+        return index >= 0 && (words[index] & (1L << position)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int lastWordIndex() {
+        return size == 0 ? -1 : keys[size - 1];
+    }
+
+    public long sizeInBytes() {
+        return (long) keys.length * Integer.BYTES + (long) words.length * Long.BYTES;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            forEachBit(keys[i], words[i], action);
+        }
+    }
+
+    public void orInto(BitSet target) {
+        forEach(target::set);
+    }
+
+    public void orInto(long[] target) {
+        for (int i = 0; i < size; i++) {
+            target[keys[i]] |= words[i];
+        }
+    }
+
+    public static int andCardinality(SparseBitmap left, SparseBitmap right) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            int leftKey = left.keys[i];
+            int rightKey = right.keys[j];
+            if (leftKey == rightKey) {
+                cardinality += Long.bitCount(left.words[i++] & right.words[j++]);
+            } else if (leftKey < rightKey) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    public static void forEachAndNot(SparseBitmap left, SparseBitmap right, IntConsumer action) {
+        int j = 0;
+        for (int i = 0; i < left.size; i++) {
+            int key = left.keys[i];
+            while (j < right.size && right.keys[j] < key) {
+                j++;
+            }
+            long word = j < right.size && right.keys[j] == key ? left.words[i] & ~right.words[j] : left.words[i];
+            forEachBit(key, word, action);
+        }
+    }
+
+    private static void forEachBit(int key, long word, IntConsumer action) {
+        while (word != 0) {
+            action.accept((key << 6) + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+        }
+    }
+}
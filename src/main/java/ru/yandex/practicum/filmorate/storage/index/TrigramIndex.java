@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.*;
+
+public class TrigramIndex {
+    static final int GRAM_LENGTH = 3;
+    static final char TEXT_START = '\u0002';
+    static final char TEXT_END = '\u0003';
+
+    private final Map<Integer, List<String>> values = new HashMap<>();
+    private final Map<String, CompressedIntList> postings = new HashMap<>();
+
+    public void put(Long id, Collection<String> texts) {
+        int key = toKey(id);
+        remove(id);
+        List<String> stored = List.copyOf(texts);
+        values.put(key, stored);
+        for (String gram : gramsOf(stored)) {
+            postings.computeIfAbsent(gram, g -> new CompressedIntList()).add(key);
+        }
+    }
+
+    public void remove(Long id) {
+        int key = toKey(id);
+        List<String> stored = values.remove(key);
+        if (stored == null) {
+            return;
+        }
+        for (String gram : gramsOf(stored)) {
+            CompressedIntList ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(key);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        values.clear();
+        postings.clear();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public int gramCount() {
+        return postings.size();
+    }
+
+    public List<Long> find(String text) {
+        if (text.isEmpty()) {
+            return values.keySet().stream()
+                    .sorted()
+                    .map(Integer::longValue)
+                    .toList();
+        }
+        int[] candidates = text.length() < GRAM_LENGTH ? findShort(text) : findLong(text);
+        List<Long> found = new ArrayList<>(candidates.length);
+        for (int candidate : candidates) {
+            if (values.get(candidate).stream().anyMatch(value -> value.contains(text))) {
+                found.add((long) candidate);
+            }
+        }
+        return found;
+    }
+
+    private int[] findLong(String text) {
+        List<CompressedIntList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            CompressedIntList ids = postings.get(text.substring(i, i + GRAM_LENGTH));
+            if (ids == null) {
+                return new int[0];
+            }
+            lists.add(ids);
+        }
+        return CompressedIntList.intersect(lists);
+    }
+
+    private int[] findShort(String text) {
+        BitSet ids = new BitSet();
+        postings.forEach((gram, list) -> {
+            if (gram.contains(text)) {
+                for (int id : list.toArray()) {
+                    ids.set(id);
+                }
+            }
+        });
+        return ids.stream().toArray();
+    }
+
+    private static Set<String> gramsOf(List<String> texts) {
+        Set<String> grams = new HashSet<>();
+        for (String text : texts) {
+            String padded = TEXT_START + text + TEXT_END;
+            for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static int toKey(Long id) {
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID не может быть проиндексирован: " + id);
+        }
+        return id.intValue();
+    }
+}
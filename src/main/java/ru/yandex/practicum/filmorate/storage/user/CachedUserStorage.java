@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.index.LiveIdIndex;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Qualifier("cachedStorage")
+public class CachedUserStorage implements UserStorage {
+    final UserRepository userRepository;
+    final UserCache userCache;
+    final LiveIdIndex userIds = new LiveIdIndex();
+
+    @PostConstruct
+    public void loadUserIds() {
+        userIds.reset(userRepository.getUserIds());
+        log.info("Загружено {} ID пользователей", userIds.size());
+    }
+
+    @Override
+    public User create(User user) {
+        User created = userRepository.create(user);
+        userIds.add(created.getId());
+        userCache.put(created);
+        return created;
+    }
+
+    @Override
+    public User update(User user) {
+        User updated = userRepository.update(user);
+        userCache.evict(user.getId());
+        return updated;
+    }
+
+    @Override
+    public boolean delete(User user) {
+        boolean deleted = userRepository.delete(user);
+        userIds.remove(user.getId());
+        userCache.evict(user.getId());
+        return deleted;
+    }
+
+    @Override
+    public void deleteUserById(Long userId) {
+        userRepository.deleteUserById(userId);
+        userIds.remove(userId);
+        userCache.evict(userId);
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        if (!userIds.contains(id)) {
+            return Optional.empty();
+        }
+        Optional<User> cached = userCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<User> user = userRepository.getUserById(id);
+        user.ifPresent(userCache::put);
+        return user;
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return userIds.contains(id);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return userRepository.getUsers();
+    }
+}
@@ -0,0 +1,309 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.index.MinHashLsh;
+import ru.yandex.practicum.filmorate.storage.index.SparseBitmap;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LikeMatrix {
+    static final SparseBitmap NO_FILMS = new SparseBitmap();
+    static final int SCORING_LEAF_SIZE = 1024;
+    static final int DEADLINE_CHECK_MASK = 255;
+
+    final FilmRepository filmRepository;
+    final int exactCandidateLimit;
+    final MinHashLsh similarUsers;
+    final ForkJoinPool scoringPool;
+    final int parallelThreshold;
+    final long deadlineNanos;
+    final Map<Integer, SparseBitmap> userFilms = new HashMap<>();
+    final Map<Integer, SparseBitmap> filmUsers = new HashMap<>();
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LikeMatrix(FilmRepository filmRepository,
+                      @Value("${filmorate.recommendations.exact-candidate-limit:2000}") int exactCandidateLimit,
+                      @Value("${filmorate.recommendations.lsh.bands:32}") int bands,
+                      @Value("${filmorate.recommendations.lsh.rows:2}") int rows,
+                      @Value("${filmorate.recommendations.scoring.parallelism:4}") int parallelism,
+                      @Value("${filmorate.recommendations.scoring.parallel-threshold:4096}") int parallelThreshold,
+                      @Value("${filmorate.recommendations.scoring.deadline-ms:200}") long deadlineMs) {
+        this.filmRepository = filmRepository;
+        this.exactCandidateLimit = exactCandidateLimit;
+        this.similarUsers = new MinHashLsh(bands, rows, 42);
+        this.scoringPool = new ForkJoinPool(parallelism);
+        this.parallelThreshold = parallelThreshold;
+        this.deadlineNanos = deadlineMs > 0 ? TimeUnit.MILLISECONDS.toNanos(deadlineMs) : Long.MAX_VALUE;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Long, List<Long>> likes = filmRepository.getLikedFilmIdsByUsers();
+        write(() -> {
+            userFilms.clear();
+            filmUsers.clear();
+            similarUsers.clear();
+            likes.forEach((userId, filmIds) -> filmIds.forEach(filmId -> set(position(userId), position(filmId))));
+        });
+        log.info("Матрица лайков построена для {} пользователей", likes.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scoringPool.shutdownNow();
+    }
+
+    public void addLike(Long filmId, Long userId) {
+        write(() -> set(position(userId), position(filmId)));
+    }
+
+    public void removeLike(Long filmId, Long userId) {
+        write(() -> unset(position(userId), position(filmId)));
+    }
+
+    public void removeUser(Long userId) {
+        int user = position(userId);
+        write(() -> {
+            SparseBitmap films = userFilms.remove(user);
+            similarUsers.removeId(user);
+            if (films != null) {
+                films.forEach(film -> clear(filmUsers, film, user));
+            }
+        });
+    }
+
+    public void removeFilm(Long filmId) {
+        int film = position(filmId);
+        write(() -> {
+            SparseBitmap users = filmUsers.get(film);
+            if (users != null) {
+                List<Integer> userIds = new ArrayList<>();
+                users.forEach(userIds::add);
+                userIds.forEach(user -> unset(user, film));
+            }
+        });
+    }
+
+    public List<Long> getRecommendedFilmIds(Long userId) {
+        return recommend(userId).filmIds();
+    }
+
+    public Recommendation recommend(Long userId) {
+        int user = position(userId);
+        return read(() -> {
+            SparseBitmap films = userFilms.get(user);
+            int bestUser = films == null ? -1 : findSimilarUser(user, films, exactCandidateLimit);
+            if (bestUser < 0) {
+                return new Recommendation(null, List.of());
+            }
+
+            List<Long> filmIds = new ArrayList<>();
+            SparseBitmap.forEachAndNot(userFilms.get(bestUser), films, film -> filmIds.add((long) film));
+            return new Recommendation((long) bestUser, filmIds);
+        });
+    }
+
+    public List<Long> getUserIds() {
+        return read(() -> userFilms.keySet().stream().map(Long::valueOf).toList());
+    }
+
+    public List<Long> getUserIds(Long filmId) {
+        int film = position(filmId);
+        return read(() -> {
+            SparseBitmap users = filmUsers.get(film);
+            if (users == null) {
+                return List.of();
+            }
+            List<Long> userIds = new ArrayList<>(users.cardinality());
+            users.forEach(user -> userIds.add((long) user));
+            return userIds;
+        });
+    }
+
+    public Optional<Long> findSimilarUserId(Long userId, int exactCandidateLimit) {
+        int user = position(userId);
+        return read(() -> {
+            SparseBitmap films = userFilms.get(user);
+            int bestUser = films == null ? -1 : findSimilarUser(user, films, exactCandidateLimit);
+            return bestUser < 0 ? Optional.empty() : Optional.of((long) bestUser);
+        });
+    }
+
+    public int getOverlap(Long userId, Long otherId) {
+        int user = position(userId);
+        int other = position(otherId);
+        return read(() -> {
+            SparseBitmap films = userFilms.get(user);
+            SparseBitmap otherFilms = userFilms.get(other);
+            return films == null || otherFilms == null ? 0 : SparseBitmap.andCardinality(films, otherFilms);
+        });
+    }
+
+    public int size() {
+        return read(userFilms::size);
+    }
+
+    public record Recommendation(Long similarUserId, List<Long> filmIds) {
+    }
+
+    private record Score(int user, int overlap, boolean expired) {
+        Score merge(Score other) {
+            Score best = other.overlap() > overlap ? other : this;
+            return new Score(best.user(), best.overlap(), expired || other.expired());
+        }
+    }
+
+    private class ScoringTask extends RecursiveTask<Score> {
+        final int user;
+        final SparseBitmap films;
+        final int[] candidates;
+        final int from;
+        final int to;
+        final long deadline;
+
+        ScoringTask(int user, SparseBitmap films, int[] candidates, int from, int to, long deadline) {
+            this.user = user;
+            this.films = films;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Score compute() {
+            if (to - from <= SCORING_LEAF_SIZE) {
+                return score(user, films, candidates, from, to, deadline);
+            }
+            int middle = (from + to) >>> 1;
+            ScoringTask left = new ScoringTask(user, films, candidates, from, middle, deadline);
+            left.fork();
+            Score right = new ScoringTask(user, films, candidates, middle, to, deadline).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private int findSimilarUser(int user, SparseBitmap films, int exactCandidateLimit) {
+        long sharedLikes = 0;
+        List<SparseBitmap> columns = new ArrayList<>();
+        films.forEach(film -> columns.add(filmUsers.get(film)));
+        for (SparseBitmap users : columns) {
+            sharedLikes += users.cardinality() - 1;
+        }
+        if (sharedLikes > exactCandidateLimit) {
+            BitSet similar = similarUsers.candidates(user);
+            if (!similar.isEmpty()) {
+                return bestOf(user, films, similar.stream().toArray());
+            }
+        }
+        return bestOf(user, films, BitSet.valueOf(candidatesOf(columns)).stream().toArray());
+    }
+
+    private int bestOf(int user, SparseBitmap films, int[] candidates) {
+        long start = System.nanoTime();
+        long deadline = deadlineNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + deadlineNanos;
+        Score best = candidates.length < parallelThreshold
+                ? score(user, films, candidates, 0, candidates.length, deadline)
+                : scoringPool.invoke(new ScoringTask(user, films, candidates, 0, candidates.length, deadline));
+        if (best.expired()) {
+            log.warn("Подбор похожего пользователя для {} прерван через {} мс, проверена часть из {} кандидатов",
+                    user, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), candidates.length);
+        }
+        return best.user();
+    }
+
+    private Score score(int user, SparseBitmap films, int[] candidates, int from, int to, long deadline) {
+        int bestUser = -1;
+        int bestOverlap = 0;
+        for (int i = from; i < to; i++) {
+            if ((i & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                return new Score(bestUser, bestOverlap, true);
+            }
+            int candidate = candidates[i];
+            if (candidate == user) {
+                continue;
+            }
+            int overlap = SparseBitmap.andCardinality(films, userFilms.get(candidate));
+            if (overlap > bestOverlap) {
+                bestOverlap = overlap;
+                bestUser = candidate;
+            }
+        }
+        return new Score(bestUser, bestOverlap, false);
+    }
+
+    private static long[] candidatesOf(List<SparseBitmap> columns) {
+        int words = 0;
+        for (SparseBitmap users : columns) {
+            words = Math.max(words, users.lastWordIndex() + 1);
+        }
+        long[] candidates = new long[words];
+        columns.forEach(users -> users.orInto(candidates));
+        return candidates;
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void set(int user, int film) {
+        if (userFilms.computeIfAbsent(user, key -> new SparseBitmap()).set(film)) {
+            similarUsers.add(user, film);
+        }
+        filmUsers.computeIfAbsent(film, key -> new SparseBitmap()).set(user);
+    }
+
+    private void unset(int user, int film) {
+        if (clear(userFilms, user, film)) {
+            similarUsers.remove(user, film, userFilms.getOrDefault(user, NO_FILMS));
+        }
+        clear(filmUsers, film, user);
+    }
+
+    private static boolean clear(Map<Integer, SparseBitmap> rows, int row, int column) {
+        SparseBitmap bitmap = rows.get(row);
+        if (bitmap == null || !bitmap.clear(column)) {
+            return false;
+        }
+        if (bitmap.isEmpty()) {
+            rows.remove(row);
+        }
+        return true;
+    }
+
+    private static int position(Long id) {
+        if (id == null || id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("ID не может быть проиндексирован: " + id);
+        }
+        return id.intValue();
+    }
+}
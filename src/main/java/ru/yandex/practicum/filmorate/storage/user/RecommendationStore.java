@@ -0,0 +1,257 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventType;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecommendationStore implements MeterBinder {
+    static final int EVENT_BATCH_SIZE = 1000;
+
+    final LikeMatrix likeMatrix;
+    final EventRepository eventRepository;
+    final boolean enabled;
+    final int topN;
+    final int threads;
+    final long refreshIntervalMs;
+    final long gapTimeoutMs;
+    final Map<Long, Entry> recommendations = new ConcurrentHashMap<>();
+    final Map<Long, Set<Long>> followers = new ConcurrentHashMap<>();
+    final Map<Long, Long> dirty = new ConcurrentHashMap<>();
+    final NavigableMap<Long, Long> gaps = new ConcurrentSkipListMap<>();
+    final AtomicLong refreshed = new AtomicLong();
+    volatile long lastEventId;
+    ScheduledExecutorService scheduler;
+    ExecutorService workers;
+
+    public RecommendationStore(LikeMatrix likeMatrix, EventRepository eventRepository,
+                               @Value("${filmorate.recommendations.store.enabled:false}") boolean enabled,
+                               @Value("${filmorate.recommendations.store.top-n:100}") int topN,
+                               @Value("${filmorate.recommendations.store.threads:2}") int threads,
+                               @Value("${filmorate.recommendations.store.refresh-interval-ms:1000}")
+                               long refreshIntervalMs,
+                               @Value("${filmorate.recommendations.store.gap-timeout-ms:60000}") long gapTimeoutMs) {
+        this.likeMatrix = likeMatrix;
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        this.topN = topN;
+        this.threads = threads;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.gapTimeoutMs = gapTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        lastEventId = eventRepository.getLastEventId();
+        long now = System.currentTimeMillis();
+        likeMatrix.getUserIds().forEach(userId -> dirty.put(userId, now));
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads,
+                runnable -> daemon(runnable, "recommendation-refresh-" + workerNumber.incrementAndGet()));
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "recommendation-tail"));
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs,
+                TimeUnit.MILLISECONDS);
+        log.info("Предрасчёт рекомендаций включен: {} пользователей, {} потоков, обновление каждые {} мс",
+                dirty.size(), threads, refreshIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Long> getRecommendedFilmIds(Long userId) {
+        Entry entry = recommendations.get(userId);
+        return entry != null ? entry.filmIds() : recompute(userId).filmIds();
+    }
+
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        if (!gaps.isEmpty()) {
+            for (Event event : eventRepository.getEventsByIds(gaps.keySet())) {
+                gaps.remove(event.getEventId());
+                apply(event);
+            }
+            gaps.entrySet().removeIf(gap -> now - gap.getValue() > gapTimeoutMs);
+        }
+        List<Event> events;
+        do {
+            events = eventRepository.getEventsAfter(lastEventId, EVENT_BATCH_SIZE);
+            for (Event event : events) {
+                if (event.getEventId() - lastEventId <= EVENT_BATCH_SIZE) {
+                    for (long missing = lastEventId + 1; missing < event.getEventId(); missing++) {
+                        gaps.put(missing, now);
+                    }
+                } else {
+                    log.warn("Пропуск событий с ID {} по {} слишком велик для отслеживания",
+                            lastEventId + 1, event.getEventId() - 1);
+                }
+                apply(event);
+                lastEventId = event.getEventId();
+            }
+        } while (events.size() == EVENT_BATCH_SIZE);
+
+        List<Callable<Entry>> tasks = new ArrayList<>();
+        dirty.forEach((userId, markedAt) -> tasks.add(() -> {
+            dirty.remove(userId, markedAt);
+            return recompute(userId);
+        }));
+        if (tasks.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = workers != null ? workers : ForkJoinPool.commonPool();
+        try {
+            for (Future<Entry> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось пересчитать рекомендации", e.getCause());
+        }
+    }
+
+    public void removeUser(Long userId, Collection<Long> likedFilmIds) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        likedFilmIds.forEach(filmId -> markAffected(userId, filmId, now));
+        dirty.remove(userId);
+        Entry entry = recommendations.remove(userId);
+        if (entry != null && entry.similarUserId() != null) {
+            unfollow(entry.similarUserId(), userId);
+        }
+    }
+
+    public void removeFilm(Long filmId) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        likeMatrix.getUserIds(filmId).forEach(userId -> markAffected(userId, filmId, now));
+    }
+
+    public long getLagMillis() {
+        long oldest = dirty.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public int size() {
+        return recommendations.size();
+    }
+
+    public int getPending() {
+        return dirty.size();
+    }
+
+    public int getGaps() {
+        return gaps.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("recommendations.store.lag", this, RecommendationStore::getLagMillis)
+                .baseUnit("milliseconds")
+                .description("Age of the oldest like change not yet reflected in stored recommendations")
+                .register(registry);
+        Gauge.builder("recommendations.store.size", this, RecommendationStore::size)
+                .description("The number of users with stored recommendations")
+                .register(registry);
+        Gauge.builder("recommendations.store.pending", this, RecommendationStore::getPending)
+                .description("The number of users waiting for a refresh")
+                .register(registry);
+        Gauge.builder("recommendations.store.gaps", this, RecommendationStore::getGaps)
+                .description("The number of skipped event IDs that may still commit")
+                .register(registry);
+        FunctionCounter.builder("recommendations.store.refreshed", refreshed, AtomicLong::get)
+                .description("The number of recomputed user recommendations")
+                .register(registry);
+    }
+
+    private void apply(Event event) {
+        if (EventType.LIKE.toString().equals(event.getEventType())) {
+            markAffected(event.getUserId(), event.getEntityId(), event.getTimestamp());
+        }
+    }
+
+    private void markAffected(Long userId, Long filmId, long changedAt) {
+        markDirty(userId, changedAt);
+        likeMatrix.getUserIds(filmId).forEach(otherId -> markDirty(otherId, changedAt));
+        followers.getOrDefault(userId, Set.of()).forEach(followerId -> markDirty(followerId, changedAt));
+    }
+
+    private void markDirty(Long userId, long changedAt) {
+        dirty.merge(userId, changedAt, Math::min);
+    }
+
+    private Entry recompute(Long userId) {
+        LikeMatrix.Recommendation recommendation = likeMatrix.recommend(userId);
+        List<Long> filmIds = recommendation.filmIds();
+        Entry entry = new Entry(recommendation.similarUserId(),
+                filmIds.size() > topN ? List.copyOf(filmIds.subList(0, topN)) : filmIds,
+                System.currentTimeMillis());
+        Entry previous = recommendations.put(userId, entry);
+        if (previous != null && previous.similarUserId() != null
+                && !previous.similarUserId().equals(entry.similarUserId())) {
+            unfollow(previous.similarUserId(), userId);
+        }
+        if (entry.similarUserId() != null) {
+            followers.computeIfAbsent(entry.similarUserId(), key -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        refreshed.incrementAndGet();
+        return entry;
+    }
+
+    private void unfollow(Long similarUserId, Long userId) {
+        followers.computeIfPresent(similarUserId, (key, users) -> {
+            users.remove(userId);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить предрасчитанные рекомендации", e);
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public record Entry(Long similarUserId, List<Long> filmIds, long computedAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.cache.LruCache;
+import ru.yandex.practicum.filmorate.storage.cache.LruCacheMetrics;
+import java.util.ArrayList;
+import java.util.Optional;
+
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserCache implements MeterBinder {
+    final LruCache<Long, User> users;
+
+    public UserCache(@Value("${filmorate.cache.users.capacity:10000}") int capacity) {
+        this.users = new LruCache<>(capacity);
+    }
+
+    public Optional<User> get(Long userId) {
+        return Optional.ofNullable(users.get(userId)).map(UserCache::copy);
+    }
+
+    public void put(User user) {
+        users.put(user.getId(), copy(user));
+    }
+
+    public void evict(Long userId) {
+        users.invalidate(userId);
+    }
+
+    public LruCache<Long, User> getUsers() {
+        return users;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new LruCacheMetrics(users, "users").bindTo(registry);
+    }
+
+    private static User copy(User user) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .friends(user.getFriends() == null ? null : new ArrayList<>(user.getFriends()))
+                .build();
+    }
+}
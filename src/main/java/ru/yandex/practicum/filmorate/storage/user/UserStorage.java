@@ -11,7 +11,11 @@ public interface UserStorage {
 
     boolean delete(User user);
 
+    void deleteUserById(Long userId);
+
     Optional<User> getUserById(Long id);
 
+    boolean exists(Long id);
+
     List<User> getUsers();
 }
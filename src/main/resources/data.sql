@@ -19,4 +19,10 @@ SELECT t.* FROM (
                         ('R'),
                         ('NC-17')
                 ) AS t(mpaname)
-WHERE NOT EXISTS (SELECT 1 FROM PUBLIC.rating WHERE name = t.mpaname);
\ No newline at end of file
+WHERE NOT EXISTS (SELECT 1 FROM PUBLIC.rating WHERE name = t.mpaname);
+
+UPDATE likes l
+SET created_at = (SELECT MAX(e.timestamp) FROM event e
+                  WHERE e.user_id = l.user_id AND e.entity_id = l.film_id
+                    AND e.eventtype = 'LIKE' AND e.operation = 'ADD')
+WHERE l.created_at IS NULL;
@@ -93,3 +93,23 @@ CREATE TABLE IF NOT EXISTS review_likes (
     FOREIGN KEY (review_id) REFERENCES review(id),
     PRIMARY KEY (user_id, review_id)
 );
+
+CREATE TABLE IF NOT EXISTS film_like_counters (
+    film_id INTEGER NOT NULL,
+    shard INTEGER NOT NULL,
+    likes_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (film_id, shard),
+    FOREIGN KEY (film_id) REFERENCES film(id)
+);
+
+DROP INDEX IF EXISTS film_like_counters_count_idx;
+
+ALTER TABLE film ADD COLUMN IF NOT EXISTS likes_count BIGINT;
+
+ALTER TABLE film ALTER COLUMN likes_count SET DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS film_likes_count_idx ON film (likes_count DESC, id);
+
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at BIGINT;
+
+CREATE INDEX IF NOT EXISTS likes_created_at_idx ON likes (created_at);
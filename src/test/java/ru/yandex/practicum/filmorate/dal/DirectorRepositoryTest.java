@@ -14,6 +14,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.dal.mappers.DirectorRowMapper;
 import ru.yandex.practicum.filmorate.model.Director;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -128,6 +129,35 @@ class DirectorRepositoryTest {
                 .containsExactlyInAnyOrder(director1.getId(), director2.getId());
     }
 
+    @Test
+    void findDirectorsByFilmIds() {
+        Director director1 = directorRepository.create(director);
+
+        Director director2 = new Director();
+        director2.setFirstName("Steven");
+        director2.setLastName("Spielberg");
+        director2 = directorRepository.create(director2);
+
+        jdbc.update("INSERT INTO film (id, name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?, ?)",
+                1L, "Film 1", "Description", "2000-01-01", 120, 1);
+        jdbc.update("INSERT INTO film (id, name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?, ?)",
+                2L, "Film 2", "Description", "2000-01-01", 120, 1);
+
+        jdbc.update("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", 1L, director1.getId());
+        jdbc.update("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", 1L, director2.getId());
+        jdbc.update("INSERT INTO film_directors (film_id, director_id) VALUES (?, ?)", 2L, director2.getId());
+
+        Map<Long, List<Director>> filmDirectors = directorRepository.findDirectorsByFilmIds(List.of(1L, 2L, 3L));
+
+        assertThat(filmDirectors.get(1L))
+                .extracting(Director::getId)
+                .containsExactly(director1.getId(), director2.getId());
+        assertThat(filmDirectors.get(2L))
+                .extracting(Director::getId)
+                .containsExactly(director2.getId());
+        assertThat(filmDirectors).doesNotContainKey(3L);
+    }
+
     @Test
     void findDirectorById_NotFound() {
         Optional<Director> foundDirector = directorRepository.findDirectorById(999L);
@@ -12,6 +12,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.dal.mappers.*;
 import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -25,7 +26,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @Import({ReviewRepository.class, ReviewRowMapper.class, FilmRepository.class, FilmRowMapper.class,
         RatingRepository.class, GenreRepository.class, RatingRowMapper.class, GenreRowMapper.class,
         UserRepository.class, UserRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
-        EventRepository.class, EventRowMapper.class})
+        EventRepository.class, EventRowMapper.class, FilmProjectionExtractor.class, DirectorCache.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class EventRepositoryTest {
     final JdbcTemplate jdbc;
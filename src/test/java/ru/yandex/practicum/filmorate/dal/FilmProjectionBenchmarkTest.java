@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.dal.dto.FilmDto;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmHydrationService;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.SearchResultCache;
+import ru.yandex.practicum.filmorate.storage.film.SearchSuggestIndex;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, FilmProjectionExtractor.class, RatingRepository.class,
+        RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class, DirectorRepository.class,
+        DirectorRowMapper.class, FilmHydrationService.class, DirectorService.class,
+        DirectorCache.class, FilmCache.class, LikeCounterRepository.class, LikeWriteBuffer.class,
+        FilmSearchIndex.class, PopularityLeaderboard.class, SearchSuggestIndex.class, FilmFacetIndex.class,
+        SearchResultCache.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class FilmProjectionBenchmarkTest {
+    static final int FILMS = 300;
+    static final int ROUNDS = 20;
+
+    final FilmRepository filmRepository;
+    final GenreRepository genreRepository;
+    final DirectorRepository directorRepository;
+    final FilmHydrationService filmHydrationService;
+    final List<Long> filmIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Rating mpa = new Rating();
+        mpa.setId(3L);
+        List<Genre> genres = new ArrayList<>(genreRepository.findAll());
+
+        List<Director> directors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Director director = new Director();
+            director.setFirstName("Director " + i);
+            director.setLastName(i % 2 == 0 ? "Lastname " + i : null);
+            directors.add(directorRepository.create(director));
+        }
+
+        for (int i = 0; i < FILMS; i++) {
+            Film film = Film.builder()
+                    .name("Film " + i)
+                    .description("Description " + i)
+                    .releaseDate(LocalDate.of(1950 + i % 70, 1, 1))
+                    .duration(90 + i % 60)
+                    .mpa(mpa)
+                    .genres(Set.of(genres.get(i % genres.size()), genres.get((i + 1) % genres.size())))
+                    .directors(i % 3 == 0 ? Set.of() : Set.of(directors.get(i % directors.size())))
+                    .build();
+            filmIds.add(filmRepository.create(film).getId());
+        }
+    }
+
+    @Test
+    void projectionMatchesHydratedPath() {
+        List<FilmDto> hydrated = filmHydrationService.hydrate(filmRepository.getFilms());
+        List<FilmDto> projected = mapToDtos(filmRepository.getFilmProjections());
+
+        assertThat(projected).containsExactlyElementsOf(hydrated);
+
+        Long filmId = filmIds.get(FILMS / 2);
+        assertThat(FilmMapper.mapToFilmDto(filmRepository.getFilmProjectionById(filmId).get()))
+                .isEqualTo(filmHydrationService.hydrate(filmRepository.getFilmById(filmId).get()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareSingleFilmReads() {
+        long hydrated = measure(() -> filmIds.stream()
+                .map(id -> filmHydrationService.hydrate(filmRepository.getFilmById(id).get()))
+                .collect(Collectors.toList()));
+        long projected = measure(() -> filmIds.stream()
+                .map(id -> FilmMapper.mapToFilmDto(filmRepository.getFilmProjectionById(id).get()))
+                .collect(Collectors.toList()));
+
+        log.info("Чтение {} фильмов по ID: 4 запроса на фильм - {} мкс, проекция - {} мкс",
+                FILMS, hydrated, projected);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareListReads() {
+        long hydrated = measure(() -> filmHydrationService.hydrate(filmRepository.getFilms()));
+        long projected = measure(() -> mapToDtos(filmRepository.getFilmProjections()));
+
+        log.info("Чтение списка из {} фильмов: пакетная загрузка - {} мкс, проекция - {} мкс",
+                FILMS, hydrated, projected);
+    }
+
+    private long measure(Supplier<List<FilmDto>> read) {
+        read.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            assertThat(read.get()).hasSize(FILMS);
+        }
+        return (System.nanoTime() - start) / ROUNDS / 1_000;
+    }
+
+    private static List<FilmDto> mapToDtos(List<Film> films) {
+        return films.stream()
+                .map(FilmMapper::mapToFilmDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -16,8 +16,10 @@ import ru.yandex.practicum.filmorate.controller.SortBy;
 import ru.yandex.practicum.filmorate.dal.mappers.*;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -30,7 +32,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({FilmRepository.class, FilmRowMapper.class, RatingRepository.class, GenreRepository.class,
         RatingRowMapper.class, GenreRowMapper.class, UserRepository.class, UserRowMapper.class,
-        DirectorRepository.class, DirectorRowMapper.class})
+        DirectorRepository.class, DirectorRowMapper.class, FilmProjectionExtractor.class, DirectorCache.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class FilmRepositoryTest {
     final JdbcTemplate jdbc;
@@ -108,6 +111,31 @@ class FilmRepositoryTest {
                 );
     }
 
+    @Test
+    public void findFilmProjectionById() {
+        Director director = new Director();
+        director.setFirstName("Director Name");
+        director = directorRepository.create(director);
+
+        Genre genre = new Genre();
+        genre.setId(2L);
+        film.setGenres(Set.of(genre));
+        film.setDirectors(Set.of(director));
+        Film createFilm = filmRepository.create(film);
+
+        Optional<Film> projection = filmRepository.getFilmProjectionById(createFilm.getId());
+
+        Assertions.assertThat(projection).isPresent();
+        Assertions.assertThat(projection.get().getMpa().getName()).isEqualTo("G");
+        Assertions.assertThat(projection.get().getGenres())
+                .extracting(Genre::getName)
+                .containsExactly("Драма");
+        Assertions.assertThat(projection.get().getDirectors())
+                .extracting(Director::getFirstName)
+                .containsExactly("Director Name");
+        Assertions.assertThat(filmRepository.getFilmProjectionById(-1L)).isEmpty();
+    }
+
     @Test
     public void deleteFilm() {
         Film deleteFilm = filmRepository.create(film);
@@ -136,6 +164,26 @@ class FilmRepositoryTest {
         assertThat(films.size()).isEqualTo(2);
     }
 
+    @Test
+    public void getFilmsByIds() {
+        Film createFilm1 = filmRepository.create(film);
+
+        Film film2 = Film.builder()
+                .name("film2")
+                .description("description 2")
+                .releaseDate(LocalDate.of(2004, 9, 13))
+                .duration(130)
+                .mpa(mpa)
+                .build();
+        Film createFilm2 = filmRepository.create(film2);
+
+        List<Film> films = filmRepository.getFilmsByIds(List.of(createFilm2.getId(), createFilm1.getId(), 999L));
+
+        Assertions.assertThat(films)
+                .extracting(Film::getName)
+                .containsExactly("film2", "film1");
+    }
+
     @Test
     public void addRemoveLike() {
         User user = User.builder()
@@ -150,7 +198,9 @@ class FilmRepositoryTest {
 
         Film createFilm = filmRepository.create(film);
 
-        filmRepository.addLike(createFilm.getId(), createUser.getId());
+        filmRepository.addLike(createFilm.getId(), createUser.getId(), 1_700_000_000_000L);
+
+        assertThat(filmRepository.getLikeTime(createFilm.getId(), createUser.getId())).contains(1_700_000_000_000L);
 
         String filmLikes = "SELECT COUNT(*) FROM likes WHERE film_id = ?";
 
@@ -195,9 +245,9 @@ class FilmRepositoryTest {
                 .build();
         Film createFilm2 = filmRepository.create(film2);
 
-        filmRepository.addLike(createFilm1.getId(), createUser1.getId());
-        filmRepository.addLike(createFilm1.getId(), createUser2.getId());
-        filmRepository.addLike(createFilm2.getId(), createUser2.getId());
+        filmRepository.addLike(createFilm1.getId(), createUser1.getId(), System.currentTimeMillis());
+        filmRepository.addLike(createFilm1.getId(), createUser2.getId(), System.currentTimeMillis());
+        filmRepository.addLike(createFilm2.getId(), createUser2.getId(), System.currentTimeMillis());
 
         List<Film> popularFilms = filmRepository.getPopularFilms(1);
 
@@ -302,9 +352,9 @@ class FilmRepositoryTest {
         film2 = filmRepository.create(film2);
         film3 = filmRepository.create(film3);
 
-        filmRepository.addLike(film1.getId(), user1.getId());
-        filmRepository.addLike(film1.getId(), user2.getId());
-        filmRepository.addLike(film2.getId(), user1.getId());
+        filmRepository.addLike(film1.getId(), user1.getId(), System.currentTimeMillis());
+        filmRepository.addLike(film1.getId(), user2.getId(), System.currentTimeMillis());
+        filmRepository.addLike(film2.getId(), user1.getId(), System.currentTimeMillis());
 
         List<Film> films = filmRepository.getFilmsByDirectorId(director.getId(), SortBy.LIKES);
 
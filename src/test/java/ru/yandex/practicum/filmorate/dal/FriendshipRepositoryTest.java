@@ -22,7 +22,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FriendshipRepository.class, UserRepository.class, UserRowMapper.class})
+@Import({FriendshipRepository.class, UserRepository.class, UserRowMapper.class, LikeCounterRepository.class,
+        LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class FriendshipRepositoryTest {
     final JdbcTemplate jdbc;
@@ -9,12 +9,14 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.dal.mappers.DirectorRowMapper;
+import ru.yandex.practicum.filmorate.dal.mappers.FilmProjectionExtractor;
 import ru.yandex.practicum.filmorate.dal.mappers.FilmRowMapper;
 import ru.yandex.practicum.filmorate.dal.mappers.GenreRowMapper;
 import ru.yandex.practicum.filmorate.dal.mappers.RatingRowMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -25,7 +27,9 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({FilmRepository.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
-        RatingRepository.class, RatingRowMapper.class, DirectorRepository.class, DirectorRowMapper.class})
+        RatingRepository.class, RatingRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
+        FilmProjectionExtractor.class, DirectorCache.class, LikeCounterRepository.class,
+        LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class GenreRepositoryTest {
     final GenreRepository genreRepository;
@@ -76,4 +80,43 @@ class GenreRepositoryTest {
 
         assertThat(filmGenres.size()).isEqualTo(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getGenresByFilmIds() {
+        Optional<Rating> mpa = ratingRepository.findById(1L);
+
+        Film film1 = Film.builder()
+                .name("film1")
+                .description("description 1")
+                .releaseDate(LocalDate.of(2007, 9, 13))
+                .duration(120)
+                .mpa(mpa.get())
+                .genres(Set.of(genreRepository.findById(1L).get(), genreRepository.findById(2L).get()))
+                .build();
+        Film film2 = Film.builder()
+                .name("film2")
+                .description("description 2")
+                .releaseDate(LocalDate.of(2008, 9, 13))
+                .duration(100)
+                .mpa(mpa.get())
+                .genres(Set.of(genreRepository.findById(3L).get()))
+                .build();
+        Film film3 = Film.builder()
+                .name("film3")
+                .description("description 3")
+                .releaseDate(LocalDate.of(2009, 9, 13))
+                .duration(90)
+                .mpa(mpa.get())
+                .build();
+
+        Long id1 = filmRepository.create(film1).getId();
+        Long id2 = filmRepository.create(film2).getId();
+        Long id3 = filmRepository.create(film3).getId();
+
+        Map<Long, Set<Genre>> genres = genreRepository.findGenresByFilmIds(List.of(id1, id2, id3));
+
+        assertThat(genres.get(id1).size()).isEqualTo(2);
+        assertThat(genres.get(id2).size()).isEqualTo(1);
+        assertThat(genres.containsKey(id3)).isFalse();
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeCounterRepository.class, LikeWriteBuffer.class, FilmRepository.class, FilmRowMapper.class,
+        RatingRepository.class, RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        UserRepository.class, UserRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
+        FilmProjectionExtractor.class, DirectorCache.class})
+@TestPropertySource(properties = "filmorate.likes.counter-roll-up-interval-ms=0")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class LikeCounterRepositoryTest {
+    final JdbcTemplate jdbc;
+    final LikeCounterRepository likeCounterRepository;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final List<User> users = new ArrayList<>();
+    Film film;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 20; i++) {
+            users.add(userRepository.create(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("login" + i)
+                    .name("name" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()));
+        }
+        film = filmRepository.create(film("film", 2000, Set.of()));
+    }
+
+    @Test
+    void likesAreSpreadOverShards() {
+        users.forEach(user -> filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis()));
+        filmRepository.addLike(film.getId(), users.getFirst().getId(), System.currentTimeMillis());
+
+        Integer shards = jdbc.queryForObject("SELECT COUNT(*) FROM film_like_counters WHERE film_id = ?",
+                Integer.class, film.getId());
+
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(users.size());
+        assertThat(shards).isGreaterThan(1);
+    }
+
+    @Test
+    void removeLikeDecrementsOnlyExistingLikes() {
+        filmRepository.addLike(film.getId(), users.get(0).getId(), System.currentTimeMillis());
+        filmRepository.addLike(film.getId(), users.get(1).getId(), System.currentTimeMillis());
+
+        filmRepository.removeLike(film.getId(), users.get(0).getId());
+        filmRepository.removeLike(film.getId(), users.get(0).getId());
+        filmRepository.removeLike(film.getId(), users.get(2).getId());
+
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void deleteUserDecrementsLikedFilms() {
+        Film other = filmRepository.create(film("other", 2001, Set.of()));
+        filmRepository.addLike(film.getId(), users.get(0).getId(), System.currentTimeMillis());
+        filmRepository.addLike(other.getId(), users.get(0).getId(), System.currentTimeMillis());
+        filmRepository.addLike(other.getId(), users.get(1).getId(), System.currentTimeMillis());
+
+        userRepository.deleteUserById(users.get(0).getId());
+
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isZero();
+        assertThat(likeCounterRepository.getLikesCount(other.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void deleteFilmRemovesCounters() {
+        filmRepository.addLike(film.getId(), users.get(0).getId(), System.currentTimeMillis());
+
+        filmRepository.deleteFilmWithRelations(film.getId());
+
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM film_like_counters WHERE film_id = ?",
+                Integer.class, film.getId());
+        assertThat(rows).isZero();
+    }
+
+    @Test
+    void backfillCountsLikesWithoutCounters() {
+        users.forEach(user -> jdbc.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)",
+                film.getId(), user.getId()));
+        jdbc.update("UPDATE film SET likes_count = NULL WHERE id = ?", film.getId());
+
+        likeCounterRepository.backfill();
+        likeCounterRepository.backfill();
+
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(users.size());
+    }
+
+    @Test
+    void rollUpMovesPendingCountsToFilm() {
+        users.forEach(user -> filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis()));
+        filmRepository.removeLike(film.getId(), users.getFirst().getId());
+
+        likeCounterRepository.rollUp();
+
+        Integer shards = jdbc.queryForObject("SELECT COUNT(*) FROM film_like_counters WHERE film_id = ?",
+                Integer.class, film.getId());
+        Long stored = jdbc.queryForObject("SELECT likes_count FROM film WHERE id = ?", Long.class, film.getId());
+        assertThat(shards).isZero();
+        assertThat(stored).isEqualTo(users.size() - 1);
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(users.size() - 1);
+
+        filmRepository.removeLike(film.getId(), users.get(1).getId());
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(users.size() - 2);
+    }
+
+    @Test
+    void popularQueriesOrderByCounters() {
+        Genre genre = new Genre();
+        genre.setId(1L);
+        Film popular = filmRepository.create(film("popular", 2000, Set.of(genre)));
+        Film otherYear = filmRepository.create(film("other year", 1999, Set.of(genre)));
+        long likedAt = System.currentTimeMillis();
+        users.subList(0, 3).forEach(user -> filmRepository.addLike(popular.getId(), user.getId(), likedAt));
+        users.subList(0, 5).forEach(user -> filmRepository.addLike(otherYear.getId(), user.getId(), likedAt));
+        filmRepository.addLike(film.getId(), users.getFirst().getId(), System.currentTimeMillis());
+
+        assertThat(filmRepository.findPopularFilmsByGenreAndYear(10, 1L, 2000))
+                .extracting(Film::getId)
+                .containsExactly(popular.getId());
+        assertThat(filmRepository.findPopularFilmsByGenreAndYear(10, null, 2000))
+                .extracting(Film::getId)
+                .startsWith(popular.getId(), film.getId());
+        assertThat(filmRepository.getPopularFilms(2))
+                .extracting(Film::getId)
+                .containsExactly(otherYear.getId(), popular.getId());
+
+        likeCounterRepository.rollUp();
+        filmRepository.removeLike(otherYear.getId(), users.get(0).getId());
+        filmRepository.removeLike(otherYear.getId(), users.get(1).getId());
+        filmRepository.removeLike(otherYear.getId(), users.get(2).getId());
+        assertThat(filmRepository.getPopularFilms(2))
+                .extracting(Film::getId)
+                .containsExactly(popular.getId(), otherYear.getId());
+    }
+
+    private static Film film(String name, int year, Set<Genre> genres) {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(year, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(genres)
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeWriteBuffer.class, LikeCounterRepository.class, FilmRepository.class, FilmRowMapper.class,
+        RatingRepository.class, RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        UserRepository.class, UserRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
+        FilmProjectionExtractor.class, DirectorCache.class})
+@TestPropertySource(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.max-pending=100000",
+        "filmorate.likes.write-behind.flush-interval-ms=3600000"})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class LikeWriteBufferTest {
+    static final String COUNT_LIKES_QUERY = "SELECT COUNT(*) FROM likes WHERE film_id = ?";
+
+    final JdbcTemplate jdbc;
+    final LikeWriteBuffer likeWriteBuffer;
+    final LikeCounterRepository likeCounterRepository;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final List<User> users = new ArrayList<>();
+    Film film;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            users.add(userRepository.create(User.builder()
+                    .email("buffer" + i + "@mail.ru")
+                    .login("buffer" + i)
+                    .name("buffer" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()));
+        }
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        film = filmRepository.create(Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(Set.of())
+                .directors(Set.of())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeWriteBuffer.flush();
+    }
+
+    @Test
+    void likesAreBufferedUntilFlush() {
+        Long userId = users.getFirst().getId();
+
+        assertThat(filmRepository.addLike(film.getId(), userId, 1_700_000_000_000L)).isTrue();
+        assertThat(filmRepository.addLike(film.getId(), userId, System.currentTimeMillis())).isFalse();
+
+        assertThat(countLikes()).isZero();
+        assertThat(filmRepository.getLikeTime(film.getId(), userId)).contains(1_700_000_000_000L);
+
+        likeWriteBuffer.flush();
+
+        assertThat(likeWriteBuffer.size()).isZero();
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void addAndRemoveCoalesceToNothing() {
+        users.forEach(user -> filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis()));
+        users.forEach(user -> assertThat(filmRepository.removeLike(film.getId(), user.getId())).isTrue());
+        assertThat(filmRepository.removeLike(film.getId(), users.getFirst().getId())).isFalse();
+
+        assertThat(likeWriteBuffer.size()).isEqualTo(users.size());
+        assertThat(filmRepository.getLikeTime(film.getId(), users.getFirst().getId())).isEmpty();
+
+        likeWriteBuffer.flush();
+
+        assertThat(countLikes()).isZero();
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void readsSeeOwnPendingLikes() {
+        Long userId = users.getFirst().getId();
+        filmRepository.addLike(film.getId(), userId, System.currentTimeMillis());
+
+        assertThat(filmRepository.getLikedFilmsByUser(userId)).containsExactly(film.getId());
+        assertThat(filmRepository.getPopularFilms(1)).extracting(Film::getId).containsExactly(film.getId());
+
+        assertThat(filmRepository.removeLike(film.getId(), userId)).isTrue();
+
+        assertThat(filmRepository.getLikedFilmsByUser(userId)).isEmpty();
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void relikeReplacesStoredTime() {
+        Long userId = users.getFirst().getId();
+        jdbc.update("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)", film.getId(), userId, 1L);
+        likeCounterRepository.increment(film.getId(), userId);
+
+        assertThat(filmRepository.removeLike(film.getId(), userId)).isTrue();
+        assertThat(filmRepository.addLike(film.getId(), userId, System.currentTimeMillis())).isTrue();
+        Long likedAt = filmRepository.getLikeTime(film.getId(), userId).orElseThrow();
+
+        likeWriteBuffer.flush();
+
+        assertThat(likedAt).isGreaterThan(1L);
+        assertThat(filmRepository.getLikeTime(film.getId(), userId)).contains(likedAt);
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void readsOverlayPendingLikesWithoutFlushing() {
+        Long userId = users.getFirst().getId();
+        Long friendId = users.get(1).getId();
+        jdbc.update("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)", film.getId(), friendId, 1L);
+        likeCounterRepository.increment(film.getId(), friendId);
+        filmRepository.addLike(film.getId(), userId, 1_700_000_000_000L);
+        filmRepository.removeLike(film.getId(), friendId);
+
+        assertThat(filmRepository.getLikeTimesByUser(userId)).containsEntry(film.getId(), 1_700_000_000_000L);
+        assertThat(filmRepository.getLikeTimesByUser(friendId)).isEmpty();
+        assertThat(filmRepository.getLikedFilmIdsByUsers()).containsEntry(userId, List.of(film.getId()))
+                .doesNotContainKey(friendId);
+        assertThat(filmRepository.getLikesCounts()).containsEntry(film.getId(), 1L);
+        assertThat(filmRepository.getLikeTimesSince(0)).containsEntry(film.getId(), List.of(1_700_000_000_000L));
+        assertThat(filmRepository.getRecommendedFilmIds(friendId, userId)).containsExactly(film.getId());
+        assertThat(filmRepository.getCommonLikedFilms(userId, friendId)).isEmpty();
+
+        filmRepository.addLike(film.getId(), friendId, System.currentTimeMillis());
+        assertThat(filmRepository.getCommonLikedFilms(userId, friendId)).extracting(Film::getId)
+                .containsExactly(film.getId());
+        assertThat(likeWriteBuffer.size()).isEqualTo(2);
+        assertThat(countLikes()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteUserDiscardsPendingLikes() {
+        Long userId = users.getFirst().getId();
+        filmRepository.addLike(film.getId(), userId, System.currentTimeMillis());
+        filmRepository.addLike(film.getId(), users.get(1).getId(), System.currentTimeMillis());
+
+        userRepository.deleteUserById(userId);
+
+        assertThat(likeWriteBuffer.size()).isEqualTo(1);
+        likeWriteBuffer.flush();
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void deleteFilmDiscardsPendingLikes() {
+        filmRepository.addLike(film.getId(), users.getFirst().getId(), System.currentTimeMillis());
+
+        filmRepository.deleteFilmWithRelations(film.getId());
+        likeWriteBuffer.flush();
+
+        assertThat(likeWriteBuffer.size()).isZero();
+        assertThat(countLikes()).isZero();
+    }
+
+    @Test
+    void changesViolatingIntegrityAreDropped() {
+        Long userId = users.getFirst().getId();
+        Long missingFilmId = film.getId() + 1000;
+        List<LikeWriteBuffer.DroppedLike> dropped = new ArrayList<>();
+        likeWriteBuffer.onDropped(dropped::add);
+        likeWriteBuffer.addLike(missingFilmId, userId, 1_700_000_000_000L);
+        filmRepository.addLike(film.getId(), userId, System.currentTimeMillis());
+
+        likeWriteBuffer.flush();
+
+        assertThat(dropped).containsExactly(new LikeWriteBuffer.DroppedLike(missingFilmId, userId,
+                new LikeWriteBuffer.PendingLike(false, null, true, 1_700_000_000_000L)));
+        assertThat(likeWriteBuffer.size()).isZero();
+        assertThat(countLikes()).isEqualTo(1);
+        assertThat(likeCounterRepository.getLikesCount(film.getId())).isEqualTo(1);
+
+        filmRepository.addLike(film.getId(), users.get(1).getId(), System.currentTimeMillis());
+        likeWriteBuffer.flush();
+        assertThat(countLikes()).isEqualTo(2);
+    }
+
+    private int countLikes() {
+        return jdbc.queryForObject(COUNT_LIKES_QUERY, Integer.class, film.getId());
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.dal.mappers.RatingRowMapper;
 import ru.yandex.practicum.filmorate.model.Rating;
 
@@ -22,6 +23,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @Import({RatingRepository.class, RatingRowMapper.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class RatingRepositoryTest {
+    final JdbcTemplate jdbc;
     final RatingRepository ratingRepository;
 
     @Test
@@ -41,4 +43,26 @@ class RatingRepositoryTest {
 
         assertThat(ratings.size()).isEqualTo(5);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRatingByUnknownId() {
+        assertThat(ratingRepository.findById(0L)).isEmpty();
+        assertThat(ratingRepository.findById(100L)).isEmpty();
+        assertThat(ratingRepository.findById(null)).isEmpty();
+    }
+
+    @Test
+    void refreshReloadsSnapshot() {
+        jdbc.update("INSERT INTO rating (id, name) VALUES (?, ?)", 42, "TV-MA");
+        assertThat(ratingRepository.findById(42L)).isEmpty();
+
+        ratingRepository.refresh();
+        assertThat(ratingRepository.findById(42L))
+                .isPresent()
+                .hasValueSatisfying(rating -> assertThat(rating).hasFieldOrPropertyWithValue("name", "TV-MA"));
+
+        jdbc.update("DELETE FROM rating WHERE id = ?", 42);
+        ratingRepository.refresh();
+        assertThat(ratingRepository.findById(42L)).isEmpty();
+    }
+}
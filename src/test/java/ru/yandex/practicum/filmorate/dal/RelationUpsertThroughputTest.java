@@ -0,0 +1,225 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, RatingRepository.class, RatingRowMapper.class,
+        GenreRepository.class, GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
+        FilmProjectionExtractor.class, DirectorCache.class, UserRepository.class, UserRowMapper.class,
+        FriendshipRepository.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RelationUpsertThroughputTest {
+    static final int THREADS = 8;
+    static final int OPS_PER_THREAD = 500;
+    static final int USERS = 20;
+    static final int FILMS = 10;
+
+    final JdbcTemplate jdbc;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final FriendshipRepository friendshipRepository;
+    final LikeCounterRepository likeCounterRepository;
+    final List<Long> userIds = new ArrayList<>();
+    final List<Long> filmIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userRepository.create(User.builder()
+                    .email("upsert" + i + "@mail.ru")
+                    .login("upsert" + i)
+                    .name("upsert" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()).getId());
+        }
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        for (int i = 0; i < FILMS; i++) {
+            filmIds.add(filmRepository.create(Film.builder()
+                    .name("upsert " + i)
+                    .description("description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(mpa)
+                    .genres(Set.of())
+                    .directors(Set.of())
+                    .build()).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        filmIds.forEach(filmRepository::deleteFilmWithRelations);
+        userIds.forEach(userRepository::deleteUserById);
+    }
+
+    @Test
+    void concurrentLikesAreCountedOnce() throws Exception {
+        Result upsert = run((filmId, userId) -> filmRepository.addLike(filmId, userId, System.currentTimeMillis()));
+
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM likes", Integer.class);
+        long counted = filmIds.stream().mapToLong(likeCounterRepository::getLikesCount).sum();
+        assertThat(upsert.errors()).isZero();
+        assertThat(upsert.inserted()).isEqualTo(rows);
+        assertThat(counted).isEqualTo(rows.longValue());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareLikeUpserts() throws Exception {
+        Result checkThenInsert = run((filmId, userId) -> {
+            Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?",
+                    Integer.class, filmId, userId);
+            if (count == 0) {
+                jdbc.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmId, userId);
+                return true;
+            }
+            return false;
+        });
+        jdbc.update("DELETE FROM likes");
+        Result upsert = run((filmId, userId) -> filmRepository.addLike(filmId, userId, System.currentTimeMillis()));
+
+        log.info("Лайки, {} потоков: проверка и вставка - {} оп/с, {} ошибок; MERGE - {} оп/с, {} ошибок",
+                THREADS, checkThenInsert.opsPerSecond(), checkThenInsert.errors(),
+                upsert.opsPerSecond(), upsert.errors());
+    }
+
+    @Test
+    void checkThenInsertRacesWhereMergeDoesNot() throws Exception {
+        CyclicBarrier checked = new CyclicBarrier(THREADS);
+        Result checkThenInsert = race((filmId, userId) -> {
+            Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?",
+                    Integer.class, filmId, userId);
+            await(checked);
+            if (count == 0) {
+                jdbc.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmId, userId);
+                return true;
+            }
+            return false;
+        });
+        jdbc.update("DELETE FROM likes");
+        Result upsert = race((filmId, userId) -> filmRepository.addLike(filmId, userId, System.currentTimeMillis()));
+
+        assertThat(checkThenInsert.inserted()).isEqualTo(1);
+        assertThat(checkThenInsert.errors()).isEqualTo(THREADS - 1);
+        assertThat(upsert.inserted()).isEqualTo(1);
+        assertThat(upsert.errors()).isZero();
+        assertThat(likeCounterRepository.getLikesCount(filmIds.getFirst())).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentFriendshipsAreAddedOnce() throws Exception {
+        Result upsert = run((first, second) -> {
+            Long userId = userIds.get((int) (first % USERS));
+            Long friendId = userIds.get((int) (second % USERS));
+            return !userId.equals(friendId) && friendshipRepository.addFriendship(userId, friendId);
+        });
+
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM friendships", Integer.class);
+        assertThat(upsert.errors()).isZero();
+        assertThat(upsert.inserted()).isEqualTo(rows);
+    }
+
+    private Result run(Relation relation) throws Exception {
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    Long filmId = filmIds.get(random.nextInt(FILMS));
+                    Long userId = userIds.get(random.nextInt(USERS));
+                    try {
+                        if (relation.add(filmId, userId)) {
+                            inserted.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return new Result(inserted.get(), errors.get(), THREADS * OPS_PER_THREAD * 1_000_000_000L / elapsed);
+    }
+
+    private Result race(Relation relation) throws Exception {
+        AtomicInteger inserted = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    if (relation.add(filmIds.getFirst(), userIds.getFirst())) {
+                        inserted.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        return new Result(inserted.get(), errors.get(), 0);
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface Relation {
+        boolean add(Long first, Long second);
+    }
+
+    private record Result(int inserted, int errors, long opsPerSecond) {
+    }
+}
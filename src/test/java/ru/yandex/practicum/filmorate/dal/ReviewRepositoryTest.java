@@ -14,6 +14,7 @@ import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Rating;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -26,7 +27,9 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Import({ReviewRepository.class, ReviewRowMapper.class, FilmRepository.class, FilmRowMapper.class,
         RatingRepository.class, GenreRepository.class, RatingRowMapper.class, GenreRowMapper.class,
-        UserRepository.class, UserRowMapper.class, DirectorRepository.class, DirectorRowMapper.class})
+        UserRepository.class, UserRowMapper.class, DirectorRepository.class, DirectorRowMapper.class,
+        FilmProjectionExtractor.class, DirectorCache.class, LikeCounterRepository.class,
+        LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class ReviewRepositoryTest {
     final ReviewRepository reviewRepository;
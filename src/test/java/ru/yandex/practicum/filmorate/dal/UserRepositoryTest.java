@@ -23,7 +23,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({UserRepository.class, UserRowMapper.class})
+@Import({UserRepository.class, UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class UserRepositoryTest {
     final JdbcTemplate jdbc;
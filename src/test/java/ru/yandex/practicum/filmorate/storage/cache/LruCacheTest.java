@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruCacheTest {
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruCache<Long, String> cache = new LruCache<>(2);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.get(1L);
+        cache.put(3L, "three");
+
+        assertThat(cache.get(1L)).isEqualTo("one");
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(3L)).isEqualTo("three");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfSkipsEntryWhenConditionFails() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+
+        assertThat(cache.putIf(1L, "one", () -> false)).isFalse();
+        assertThat(cache.putIf(2L, "two", () -> true)).isTrue();
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isEqualTo("two");
+        assertThat(cache.getPuts()).isEqualTo(1);
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        cache.put(1L, "one");
+
+        cache.get(1L);
+        cache.get(1L);
+        cache.get(2L);
+
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getPuts()).isEqualTo(1);
+        assertThat(cache.getHitRatio()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void dropsEntriesRejectedByValidityCheck() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        cache.put(1L, "one");
+
+        assertThat(cache.get(1L, value -> false)).isNull();
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatesMatchingEntries() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.put(3L, "three");
+
+        cache.invalidate(1L);
+        cache.invalidateIf((key, value) -> value.startsWith("t"));
+
+        assertThat(cache.size()).isZero();
+    }
+}
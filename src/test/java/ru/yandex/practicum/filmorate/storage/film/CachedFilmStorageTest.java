@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.DirectorRepository;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.dal.LikeCounterRepository;
+import ru.yandex.practicum.filmorate.dal.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.dal.RatingRepository;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({CachedFilmStorage.class, FilmCache.class, FilmRepository.class, FilmRowMapper.class,
+        FilmProjectionExtractor.class, RatingRepository.class, RatingRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CachedFilmStorageTest {
+    final JdbcTemplate jdbc;
+    final CachedFilmStorage cachedFilmStorage;
+    final FilmRepository filmRepository;
+    final FilmCache filmCache;
+    Film film;
+
+    @BeforeEach
+    void setUp() {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+
+        film = cachedFilmStorage.create(Film.builder()
+                .name("film1")
+                .description("description 1")
+                .releaseDate(LocalDate.of(2007, 8, 13))
+                .duration(120)
+                .mpa(mpa)
+                .build());
+    }
+
+    @Test
+    void getFilmByIdServesRepeatedReadsFromCache() {
+        long misses = filmCache.getFilms().getMisses();
+        long hits = filmCache.getFilms().getHits();
+
+        Film first = cachedFilmStorage.getFilmById(film.getId()).get();
+        jdbc.update("UPDATE film SET name = ? WHERE id = ?", "changed behind cache", film.getId());
+        Film second = cachedFilmStorage.getFilmById(film.getId()).get();
+
+        assertThat(first.getMpa().getName()).isEqualTo("G");
+        assertThat(second.getName()).isEqualTo("film1");
+        assertThat(filmCache.getFilms().getMisses() - misses).isEqualTo(1);
+        assertThat(filmCache.getFilms().getHits() - hits).isEqualTo(1);
+    }
+
+    @Test
+    void cachedFilmIsNotSharedWithCallers() {
+        cachedFilmStorage.getFilmById(film.getId()).get().setName("mutated by caller");
+
+        assertThat(cachedFilmStorage.getFilmById(film.getId()).get().getName()).isEqualTo("film1");
+    }
+
+    @Test
+    void updateEvictsFilm() {
+        Film cached = cachedFilmStorage.getFilmById(film.getId()).get();
+        cached.setName("updated");
+
+        cachedFilmStorage.update(cached);
+
+        assertThat(cachedFilmStorage.getFilmById(film.getId()).get().getName()).isEqualTo("updated");
+    }
+
+    @Test
+    void filmReadBeforeUpdateIsNotCached() {
+        long version = filmCache.getVersion();
+        Film stale = filmRepository.getFilmProjectionById(film.getId()).get();
+
+        Film updated = filmRepository.getFilmProjectionById(film.getId()).get();
+        updated.setName("updated");
+        cachedFilmStorage.update(updated);
+
+        assertThat(filmCache.put(stale, version)).isFalse();
+        assertThat(cachedFilmStorage.getFilmById(film.getId()).get().getName()).isEqualTo("updated");
+    }
+
+    @Test
+    void deleteEvictsFilm() {
+        cachedFilmStorage.getFilmById(film.getId());
+
+        cachedFilmStorage.deleteFilmWithRelations(film.getId());
+
+        assertThat(cachedFilmStorage.getFilmById(film.getId())).isEmpty();
+        assertThat(cachedFilmStorage.exists(film.getId())).isFalse();
+    }
+}
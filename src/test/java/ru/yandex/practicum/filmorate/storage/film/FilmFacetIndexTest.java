@@ -0,0 +1,278 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.controller.FilmSortBy;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.dto.FilmFilterRequest;
+import ru.yandex.practicum.filmorate.dal.dto.SearchFacetsDto;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmFacetIndex.class, PopularityLeaderboard.class, FilmRepository.class, FilmRowMapper.class,
+        FilmProjectionExtractor.class, RatingRepository.class, RatingRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class,
+        UserRepository.class, UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class FilmFacetIndexTest {
+    static final int FILMS = 500;
+    static final int ROUNDS = 50;
+
+    final FilmFacetIndex filmFacetIndex;
+    final PopularityLeaderboard popularityLeaderboard;
+    final FilmRepository filmRepository;
+    final GenreRepository genreRepository;
+    final DirectorRepository directorRepository;
+    final UserRepository userRepository;
+    final JdbcTemplate jdbc;
+    final List<Film> films = new ArrayList<>();
+    final List<Director> directors = new ArrayList<>();
+    final Map<Long, Integer> likes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Genre> genres = new ArrayList<>(genreRepository.findAll());
+        for (int i = 0; i < 4; i++) {
+            Director director = new Director();
+            director.setFirstName("Режиссер " + i);
+            directors.add(directorRepository.create(director));
+        }
+        for (int i = 0; i < FILMS; i++) {
+            Set<Genre> filmGenres = new HashSet<>();
+            for (int j = 0; j < i % 3; j++) {
+                filmGenres.add(genres.get((i + j * 2) % genres.size()));
+            }
+            Film film = film("Фильм " + i, 1L + i % 5, 1930 + i * 7 % 95, filmGenres);
+            film.setDuration(60 + i * 13 % 120);
+            film.setDirectors(i % 5 == 4 ? Set.of() : Set.of(directors.get(i % 4)));
+            films.add(filmRepository.getFilmProjectionById(filmRepository.create(film).getId()).get());
+        }
+        for (int i = 0; i < 5; i++) {
+            User user = userRepository.create(User.builder()
+                    .email("facet" + i + "@mail.ru")
+                    .login("facet" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+            for (Film film : films) {
+                if (film.getId() % (i + 2) == 0) {
+                    filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis());
+                    likes.merge(film.getId(), 1, Integer::sum);
+                }
+            }
+        }
+        popularityLeaderboard.rebuild();
+        filmFacetIndex.rebuild();
+    }
+
+    @Test
+    void facetsMatchSql() {
+        List<List<Long>> results = List.of(filmIds(film -> true), filmIds(film -> film.getId() % 2 == 0),
+                filmIds(film -> film.getId() % 7 == 3), filmIds(film -> film.getName().endsWith("1")),
+                List.of(films.get(0).getId()), List.of());
+
+        for (List<Long> filmIds : results) {
+            assertThat(filmFacetIndex.count(filmIds))
+                    .as("%d фильмов", filmIds.size())
+                    .isEqualTo(sqlFacets(filmIds));
+        }
+    }
+
+    @Test
+    void filmChangesAreIndexed() {
+        Film film = films.get(1);
+        Rating mpa = new Rating();
+        mpa.setId(5L);
+        film.setMpa(mpa);
+        film.setReleaseDate(LocalDate.of(2021, 5, 1));
+        film.setGenres(new HashSet<>(genreRepository.findAll()));
+        filmRepository.update(film);
+        filmFacetIndex.updateFilm(filmRepository.getFilmProjectionById(film.getId()).get());
+
+        List<Long> filmIds = filmIds(f -> f.getId() % 4 == film.getId() % 4);
+        assertThat(filmFacetIndex.count(filmIds)).isEqualTo(sqlFacets(filmIds));
+
+        filmRepository.deleteFilmWithRelations(film.getId());
+        filmFacetIndex.removeFilm(film.getId());
+
+        assertThat(filmFacetIndex.count(List.of(film.getId())))
+                .isEqualTo(new SearchFacetsDto(Map.of(), Map.of(), Map.of()));
+        assertThat(filmFacetIndex.count(filmIds)).isEqualTo(sqlFacets(filmIds));
+    }
+
+    @Test
+    void filterMatchesBruteForce() {
+        List<FilmFilterRequest> filters = List.of(
+                filter(null, null, null, null, null, null, null),
+                filter(Set.of(1L), null, null, null, null, null, null),
+                filter(Set.of(1L, 4L), Set.of(2L, 3L), null, null, null, null, null),
+                filter(null, null, Set.of(directors.get(1).getId()), 1970, 1999, null, null),
+                filter(Set.of(2L), null, null, null, null, 90, 150),
+                filter(null, Set.of(5L), Set.of(directors.get(0).getId(), directors.get(3).getId()), 2000, null,
+                        null, 100),
+                filter(Set.of(6L), Set.of(1L), Set.of(directors.get(2).getId()), 1930, 1930, 60, 60),
+                filter(Set.of(-1L), null, null, null, null, null, null),
+                filter(null, null, null, 2000, 1990, null, null),
+                filter(null, null, null, null, null, 150, 90));
+
+        for (FilmFilterRequest filter : filters) {
+            for (FilmSortBy sortBy : Arrays.asList(null, FilmSortBy.LIKES, FilmSortBy.YEAR, FilmSortBy.DURATION)) {
+                for (int count : List.of(1, 10, Integer.MAX_VALUE)) {
+                    assertThat(filmFacetIndex.find(filter, sortBy, count))
+                            .as("%s, сортировка %s, %d фильмов", filter, sortBy, count)
+                            .isEqualTo(bruteForce(filter, sortBy, count));
+                }
+            }
+        }
+    }
+
+    @Test
+    void filterFollowsFilmAndDirectorChanges() {
+        Film film = films.get(2);
+        film.setDuration(500);
+        film.setDirectors(Set.of(directors.get(3)));
+        filmFacetIndex.updateFilm(film);
+        FilmFilterRequest longFilms = filter(null, null, null, null, null, 300, null);
+        FilmFilterRequest byDirector = filter(null, null, Set.of(directors.get(3).getId()), null, null, null, null);
+
+        assertThat(filmFacetIndex.find(longFilms, null, 10)).containsExactly(film.getId());
+        assertThat(filmFacetIndex.find(byDirector, FilmSortBy.DURATION, Integer.MAX_VALUE))
+                .endsWith(film.getId());
+
+        filmFacetIndex.removeDirector(directors.get(3).getId());
+        assertThat(filmFacetIndex.find(byDirector, null, 10)).isEmpty();
+
+        filmFacetIndex.removeFilm(film.getId());
+        assertThat(filmFacetIndex.find(longFilms, null, 10)).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareFacetCounting() {
+        List<Long> filmIds = filmIds(film -> film.getId() % 3 != 0);
+        long sql = measure(() -> sqlFacets(filmIds));
+        long bitmap = measure(() -> filmFacetIndex.count(filmIds));
+
+        log.info("Фасеты для {} из {} фильмов: GROUP BY - {} мкс, битовые карты - {} мкс",
+                filmIds.size(), FILMS, sql, bitmap);
+    }
+
+    private long measure(Runnable facets) {
+        facets.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            facets.run();
+        }
+        return (System.nanoTime() - start) / ROUNDS / 1_000;
+    }
+
+    private List<Long> filmIds(Predicate<Film> filter) {
+        return films.stream()
+                .filter(filter)
+                .map(Film::getId)
+                .toList();
+    }
+
+    private List<Long> bruteForce(FilmFilterRequest filter, FilmSortBy sortBy, int count) {
+        Comparator<Film> order = switch (sortBy) {
+            case null -> Comparator.comparingLong(Film::getId);
+            case LIKES -> Comparator.<Film>comparingInt(film -> likes.getOrDefault(film.getId(), 0)).reversed()
+                    .thenComparingLong(Film::getId);
+            case YEAR -> Comparator.<Film>comparingInt(film -> film.getReleaseDate().getYear())
+                    .thenComparingLong(Film::getId);
+            case DURATION -> Comparator.comparingInt(Film::getDuration).thenComparingLong(Film::getId);
+        };
+        return films.stream()
+                .filter(film -> filter.getGenreId() == null || film.getGenres().stream()
+                        .anyMatch(genre -> filter.getGenreId().contains(genre.getId())))
+                .filter(film -> filter.getMpaId() == null || filter.getMpaId().contains(film.getMpa().getId()))
+                .filter(film -> filter.getDirectorId() == null || film.getDirectors().stream()
+                        .anyMatch(director -> filter.getDirectorId().contains(director.getId())))
+                .filter(film -> within(film.getReleaseDate().getYear(), filter.getYearFrom(), filter.getYearTo()))
+                .filter(film -> within(film.getDuration(), filter.getDurationFrom(), filter.getDurationTo()))
+                .sorted(order)
+                .limit(count)
+                .map(Film::getId)
+                .toList();
+    }
+
+    private static boolean within(int value, Integer from, Integer to) {
+        return (from == null || value >= from) && (to == null || value <= to);
+    }
+
+    private static FilmFilterRequest filter(Set<Long> genreIds, Set<Long> mpaIds, Set<Long> directorIds,
+                                            Integer yearFrom, Integer yearTo, Integer durationFrom,
+                                            Integer durationTo) {
+        FilmFilterRequest filter = new FilmFilterRequest();
+        filter.setGenreId(genreIds);
+        filter.setMpaId(mpaIds);
+        filter.setDirectorId(directorIds);
+        filter.setYearFrom(yearFrom);
+        filter.setYearTo(yearTo);
+        filter.setDurationFrom(durationFrom);
+        filter.setDurationTo(durationTo);
+        return filter;
+    }
+
+    private SearchFacetsDto sqlFacets(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return new SearchFacetsDto(Map.of(), Map.of(), Map.of());
+        }
+        String ids = filmIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        Map<Long, Integer> genres = new TreeMap<>();
+        jdbc.query("SELECT genre_id, COUNT(*) AS cnt FROM film_genres WHERE film_id IN (" + ids + ") "
+                        + "GROUP BY genre_id",
+                rs -> {
+                    genres.put(rs.getLong("genre_id"), rs.getInt("cnt"));
+                });
+        Map<Long, Integer> ratings = new TreeMap<>();
+        jdbc.query("SELECT rating_id, COUNT(*) AS cnt FROM film WHERE id IN (" + ids + ") "
+                        + "AND rating_id IS NOT NULL GROUP BY rating_id",
+                rs -> {
+                    ratings.put(rs.getLong("rating_id"), rs.getInt("cnt"));
+                });
+        Map<Integer, Integer> decades = new TreeMap<>();
+        jdbc.query("SELECT EXTRACT(YEAR FROM release_date) / 10 * 10 AS decade, COUNT(*) AS cnt FROM film "
+                        + "WHERE id IN (" + ids + ") AND release_date IS NOT NULL GROUP BY decade",
+                rs -> {
+                    decades.put(rs.getInt("decade"), rs.getInt("cnt"));
+                });
+        return new SearchFacetsDto(genres, ratings, decades);
+    }
+
+    private static Film film(String name, long mpaId, int year, Set<Genre> genres) {
+        Rating mpa = new Rating();
+        mpa.setId(mpaId);
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(year, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(genres)
+                .directors(Set.of())
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.controller.SearchBy;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmSearchIndex.class, PopularityLeaderboard.class, FilmRepository.class, FilmRowMapper.class,
+        FilmProjectionExtractor.class, RatingRepository.class, RatingRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class,
+        UserRepository.class, UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class FilmSearchIndexTest {
+    static final List<List<SearchBy>> FILTERS = List.of(List.of(SearchBy.TITLE), List.of(SearchBy.DIRECTOR),
+            List.of(SearchBy.TITLE, SearchBy.DIRECTOR));
+    static final List<String> QUERIES = List.of("атри", "Матрица", "МАТ", "кри", "ан", "о ", "р с", "стивен",
+            "Кэмерон", "2", "", "нет такого", "а", "ри", " ", ": п", "ерезагрузк");
+
+    final FilmSearchIndex filmSearchIndex;
+    final PopularityLeaderboard popularityLeaderboard;
+    final FilmRepository filmRepository;
+    final DirectorRepository directorRepository;
+    final UserRepository userRepository;
+    final List<Film> films = new ArrayList<>();
+    final List<Director> directors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        directors.add(directorRepository.create(director("Стивен", "Спилберг")));
+        directors.add(directorRepository.create(director("Джеймс", "Кэмерон")));
+        directors.add(directorRepository.create(director("Кристофер", null)));
+
+        films.add(filmRepository.create(film("Матрица", Set.of())));
+        films.add(filmRepository.create(film("Матрица 2: перезагрузка", Set.of(directors.get(2)))));
+        films.add(filmRepository.create(film("Парк юрского периода", Set.of(directors.get(0)))));
+        films.add(filmRepository.create(film("Аватар", Set.of(directors.get(1), directors.get(0)))));
+        films.add(filmRepository.create(film("Криминальное чтиво", Set.of(directors.get(2)))));
+
+        for (int i = 0; i < 3; i++) {
+            User user = userRepository.create(User.builder()
+                    .email("search" + i + "@mail.ru")
+                    .login("search" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+            for (int j = 0; j <= i; j++) {
+                filmRepository.addLike(films.get(films.size() - 1 - j).getId(), user.getId(),
+                        System.currentTimeMillis());
+            }
+        }
+        popularityLeaderboard.rebuild();
+        filmSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchMatchesSql() {
+        for (String query : QUERIES) {
+            for (List<SearchBy> filter : FILTERS) {
+                assertThat(filmSearchIndex.search(query, filter))
+                        .as("query '%s' by %s", query, filter)
+                        .isEqualTo(sqlSearch(query, filter));
+            }
+        }
+    }
+
+    @Test
+    void filmChangesAreIndexed() {
+        Film film = films.get(0);
+        film.setName("Бегущий по лезвию");
+        film.setDirectors(Set.of(directors.get(1)));
+        filmSearchIndex.updateFilm(film);
+
+        assertThat(filmSearchIndex.search("атри", List.of(SearchBy.TITLE))).doesNotContain(film.getId());
+        assertThat(filmSearchIndex.search("лезви", List.of(SearchBy.TITLE))).containsExactly(film.getId());
+        assertThat(filmSearchIndex.search("бегущий по лёзвию", List.of(SearchBy.TITLE))).containsExactly(film.getId());
+        assertThat(filmSearchIndex.search("кэмерон", List.of(SearchBy.DIRECTOR))).contains(film.getId());
+
+        filmSearchIndex.removeFilm(film.getId());
+
+        assertThat(filmSearchIndex.search("лезви", List.of(SearchBy.TITLE))).isEmpty();
+        assertThat(filmSearchIndex.search("кэмерон", List.of(SearchBy.DIRECTOR)))
+                .containsExactly(films.get(3).getId());
+    }
+
+    @Test
+    void directorChangesAreIndexed() {
+        Director director = directors.get(2);
+        director.setFirstName("Крис");
+        director.setLastName("Нолан");
+        filmSearchIndex.updateDirector(director);
+
+        assertThat(filmSearchIndex.search("нолан", List.of(SearchBy.DIRECTOR)))
+                .containsExactly(films.get(4).getId(), films.get(1).getId());
+        assertThat(filmSearchIndex.search("кристофер", List.of(SearchBy.DIRECTOR))).isEmpty();
+
+        filmSearchIndex.removeDirector(director.getId());
+
+        assertThat(filmSearchIndex.search("нолан", List.of(SearchBy.DIRECTOR))).isEmpty();
+        assertThat(filmSearchIndex.search("кри", List.of(SearchBy.TITLE, SearchBy.DIRECTOR)))
+                .containsExactly(films.get(4).getId());
+    }
+
+    @Test
+    void fuzzySearchRanksByDistanceThenLikes() {
+        assertThat(filmSearchIndex.search("матрца", List.of(SearchBy.TITLE), 0)).isEmpty();
+        assertThat(filmSearchIndex.search("матрца", List.of(SearchBy.TITLE), 1))
+                .containsExactly(films.get(0).getId(), films.get(1).getId());
+        assertThat(filmSearchIndex.search("мытрца перезагрузко", List.of(SearchBy.TITLE), 2))
+                .containsExactly(films.get(1).getId());
+        assertThat(filmSearchIndex.search("спилбер", List.of(SearchBy.DIRECTOR), 1))
+                .containsExactly(films.get(3).getId(), films.get(2).getId());
+        assertThat(filmSearchIndex.search("аватор", List.of(SearchBy.TITLE, SearchBy.DIRECTOR), 1))
+                .containsExactly(films.get(3).getId());
+    }
+
+    private List<Long> sqlSearch(String query, List<SearchBy> filter) {
+        return filmRepository.getFilmsByQuery(query, filter).stream()
+                .map(Film::getId)
+                .toList();
+    }
+
+    private static Director director(String firstName, String lastName) {
+        Director director = new Director();
+        director.setFirstName(firstName);
+        director.setLastName(lastName);
+        return director;
+    }
+
+    private static Film film(String name, Set<Director> directors) {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(Set.of())
+                .directors(directors)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({PopularityLeaderboard.class, PopularityLeaderboardEndpoint.class, FilmRepository.class, FilmRowMapper.class,
+        FilmProjectionExtractor.class, RatingRepository.class, RatingRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class,
+        UserRepository.class, UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class PopularityLeaderboardTest {
+    final JdbcTemplate jdbc;
+    final PopularityLeaderboard popularityLeaderboard;
+    final PopularityLeaderboardEndpoint popularityLeaderboardEndpoint;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final List<Film> films = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        for (int i = 0; i < 4; i++) {
+            films.add(filmRepository.create(Film.builder()
+                    .name("film" + i)
+                    .description("description")
+                    .releaseDate(LocalDate.of(2000 + i % 2, 1, 1))
+                    .duration(100)
+                    .mpa(mpa)
+                    .genres(Set.of(genre(1L + i % 2), genre(3L)))
+                    .build()));
+            users.add(userRepository.create(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()));
+        }
+        like(films.get(2), users.get(0));
+        like(films.get(2), users.get(1));
+        like(films.get(1), users.get(0));
+        popularityLeaderboard.rebuild();
+    }
+
+    @Test
+    void rebuildMatchesSqlRanking() {
+        List<Long> sqlRanking = filmRepository.getPopularFilms(Integer.MAX_VALUE).stream()
+                .map(Film::getId)
+                .toList();
+
+        assertThat(popularityLeaderboard.getTopFilmIds(Integer.MAX_VALUE)).isEqualTo(sqlRanking);
+        assertThat(popularityLeaderboard.getTopFilmIds(2))
+                .containsExactly(films.get(2).getId(), films.get(1).getId());
+        assertThat(popularityLeaderboard.findInconsistentFilmIds()).isEmpty();
+    }
+
+    @Test
+    void incrementsReorderFilmsWithIdTieBreak() {
+        popularityLeaderboard.increment(films.get(3).getId());
+        popularityLeaderboard.increment(films.get(3).getId());
+        popularityLeaderboard.decrement(films.get(2).getId());
+
+        assertThat(popularityLeaderboard.getTopFilmIds(3))
+                .containsExactly(films.get(3).getId(), films.get(1).getId(), films.get(2).getId());
+        assertThat(popularityLeaderboard.getLikes(films.get(3).getId())).isEqualTo(2);
+    }
+
+    @Test
+    void addAndRemoveFilm() {
+        popularityLeaderboard.removeFilm(films.get(2).getId());
+        popularityLeaderboard.addFilm(films.get(1));
+
+        assertThat(popularityLeaderboard.getTopFilmIds(1)).containsExactly(films.get(1).getId());
+        assertThat(popularityLeaderboard.getLikes(films.get(1).getId())).isEqualTo(1);
+    }
+
+    @Test
+    void consistencyCheckReportsDrift() {
+        like(films.get(0), users.get(3));
+        popularityLeaderboard.removeFilm(films.get(3).getId());
+
+        assertThat(popularityLeaderboard.findInconsistentFilmIds())
+                .contains(films.get(0).getId(), films.get(3).getId())
+                .doesNotContain(films.get(1).getId(), films.get(2).getId());
+        assertThat(popularityLeaderboardEndpoint.report().mismatches()).isEqualTo(2);
+
+        popularityLeaderboard.rebuild();
+
+        assertThat(popularityLeaderboardEndpoint.report().mismatches()).isZero();
+    }
+
+    @Test
+    void partitionsMatchFilteredSqlRanking() {
+        for (Long genreId : new Long[]{null, 1L, 2L, 3L, 4L}) {
+            for (Integer year : new Integer[]{null, 2000, 2001, 1999}) {
+                List<Long> sqlRanking = filmRepository.findPopularFilmsByGenreAndYear(100, genreId, year).stream()
+                        .map(Film::getId)
+                        .toList();
+
+                assertThat(popularityLeaderboard.getTopFilmIds(100, genreId, year))
+                        .as("genreId=%s, year=%s", genreId, year)
+                        .isEqualTo(sqlRanking);
+            }
+        }
+    }
+
+    @Test
+    void updateFilmMovesFilmBetweenPartitions() {
+        Film film = films.get(2);
+        film.setReleaseDate(LocalDate.of(1999, 5, 5));
+        film.setGenres(Set.of(genre(4L)));
+        filmRepository.update(film);
+
+        popularityLeaderboard.updateFilm(filmRepository.getFilmProjectionById(film.getId()).get());
+
+        assertThat(popularityLeaderboard.getTopFilmIds(10, 1L, 2000)).doesNotContain(film.getId());
+        assertThat(popularityLeaderboard.getTopFilmIds(10, 4L, 1999)).containsExactly(film.getId());
+        assertThat(popularityLeaderboard.getLikes(film.getId())).isEqualTo(2);
+    }
+
+    private static Genre genre(Long id) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        return genre;
+    }
+
+    private void like(Film film, User user) {
+        filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis());
+    }
+}
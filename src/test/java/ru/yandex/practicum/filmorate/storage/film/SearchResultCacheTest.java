@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.controller.SearchBy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+    @Test
+    void equivalentQueriesShareEntry() {
+        SearchResultCache cache = new SearchResultCache(10, 0);
+        List<String> searched = new ArrayList<>();
+
+        List<Long> first = cache.get("  Ёлки ", List.of(SearchBy.TITLE, SearchBy.DIRECTOR), 0,
+                text -> search(searched, text));
+        List<Long> second = cache.get("елки", List.of(SearchBy.DIRECTOR, SearchBy.TITLE), 0,
+                text -> search(searched, text));
+        cache.get("елки", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+        cache.get("елки", List.of(SearchBy.TITLE), 1, text -> search(searched, text));
+
+        assertThat(searched).containsExactly("елки", "елки", "елки");
+        assertThat(second).isEqualTo(first);
+        assertThat(cache.getResults().getHitRatio()).isEqualTo(0.25);
+    }
+
+    @Test
+    void versionBumpInvalidatesEntries() {
+        SearchResultCache cache = new SearchResultCache(10, 0);
+        List<String> searched = new ArrayList<>();
+
+        cache.get("матрица", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+        cache.bumpVersion();
+        cache.get("матрица", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+        cache.get("матрица", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+
+        assertThat(searched).hasSize(2);
+    }
+
+    @Test
+    void staleEntriesAreServedWithinBound() {
+        SearchResultCache cache = new SearchResultCache(10, 60_000);
+        List<String> searched = new ArrayList<>();
+
+        cache.get("матрица", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+        cache.bumpVersion();
+        cache.get("матрица", List.of(SearchBy.TITLE), 0, text -> search(searched, text));
+
+        assertThat(searched).hasSize(1);
+    }
+
+    private static List<Long> search(List<String> searched, String text) {
+        searched.add(text);
+        return List.of((long) searched.size());
+    }
+}
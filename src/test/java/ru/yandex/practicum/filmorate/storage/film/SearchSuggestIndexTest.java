@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.dto.SuggestionDto;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({SearchSuggestIndex.class, PopularityLeaderboard.class, FilmRepository.class, FilmRowMapper.class,
+        FilmProjectionExtractor.class, RatingRepository.class, RatingRowMapper.class, GenreRepository.class,
+        GenreRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class,
+        UserRepository.class, UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class SearchSuggestIndexTest {
+    final SearchSuggestIndex searchSuggestIndex;
+    final PopularityLeaderboard popularityLeaderboard;
+    final FilmRepository filmRepository;
+    final DirectorRepository directorRepository;
+    final UserRepository userRepository;
+    final List<Film> films = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+    Director director;
+
+    @BeforeEach
+    void setUp() {
+        Director newDirector = new Director();
+        newDirector.setFirstName("Мартин");
+        newDirector.setLastName("Скорсезе");
+        director = directorRepository.create(newDirector);
+
+        films.add(filmRepository.create(film("Марсианин", Set.of())));
+        films.add(filmRepository.create(film("Матрица", Set.of())));
+        films.add(filmRepository.create(film("Таксист", Set.of(director))));
+        for (int i = 0; i < 3; i++) {
+            users.add(userRepository.create(User.builder()
+                    .email("suggest" + i + "@mail.ru")
+                    .login("suggest" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()));
+        }
+        like(films.get(1), users.get(0));
+        like(films.get(1), users.get(1));
+        like(films.get(2), users.get(0));
+        popularityLeaderboard.rebuild();
+        searchSuggestIndex.rebuild();
+    }
+
+    @Test
+    void suggestsFilmsAndDirectorsByPopularity() {
+        assertThat(searchSuggestIndex.suggest("ма", 10))
+                .extracting(SuggestionDto::getType, SuggestionDto::getText, SuggestionDto::getLikes)
+                .containsExactly(
+                        tuple("film", "Матрица", 2L),
+                        tuple("director", "Мартин Скорсезе", 1L),
+                        tuple("film", "Марсианин", 0L));
+        assertThat(searchSuggestIndex.suggest("скор", 10))
+                .extracting(SuggestionDto::getId)
+                .containsExactly(director.getId());
+        assertThat(searchSuggestIndex.suggest("ма", 1)).hasSize(1);
+    }
+
+    @Test
+    void likesAndFilmChangesReorderSuggestions() {
+        for (User user : users) {
+            like(films.get(2), user);
+        }
+        searchSuggestIndex.updateFilmLikes(films.get(2).getId());
+
+        assertThat(searchSuggestIndex.suggest("ма", 1))
+                .extracting(SuggestionDto::getType, SuggestionDto::getLikes)
+                .containsExactly(tuple("director", 3L));
+
+        Film renamed = films.get(0);
+        renamed.setName("Интерстеллар");
+        searchSuggestIndex.updateFilm(renamed);
+        searchSuggestIndex.removeDirector(director.getId());
+
+        assertThat(searchSuggestIndex.suggest("ма", 10))
+                .extracting(SuggestionDto::getId)
+                .containsExactly(films.get(1).getId());
+        assertThat(searchSuggestIndex.suggest("инт", 10))
+                .extracting(SuggestionDto::getId)
+                .containsExactly(renamed.getId());
+    }
+
+    private void like(Film film, User user) {
+        if (filmRepository.addLike(film.getId(), user.getId(), System.currentTimeMillis())) {
+            popularityLeaderboard.increment(film.getId());
+        }
+    }
+
+    private static Film film(String name, Set<Director> directors) {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        return Film.builder()
+                .name(name)
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .genres(Set.of())
+                .directors(directors)
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.controller.TrendingWindow.DAY;
+import static ru.yandex.practicum.filmorate.controller.TrendingWindow.WEEK;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class, FilmProjectionExtractor.class, RatingRepository.class,
+        RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class, DirectorRepository.class,
+        DirectorRowMapper.class, DirectorCache.class, UserRepository.class, UserRowMapper.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TrendingTrackerTest {
+    final JdbcTemplate jdbc;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:30:00Z"));
+    TrendingTracker trendingTracker;
+
+    @BeforeEach
+    void setUp() {
+        trendingTracker = new TrendingTracker(filmRepository, clock);
+    }
+
+    @Test
+    void likesLeaveWindowsAsTimePasses() {
+        long now = clock.millis();
+        trendingTracker.addLike(1L, now);
+        trendingTracker.addLike(2L, now - Duration.ofDays(2).toMillis());
+        trendingTracker.addLike(2L, now - Duration.ofDays(3).toMillis());
+        trendingTracker.addLike(3L, now - Duration.ofDays(10).toMillis());
+
+        assertThat(trendingTracker.getTopFilmIds(DAY, 10)).containsExactly(1L);
+        assertThat(trendingTracker.getTopFilmIds(WEEK, 10)).containsExactly(2L, 1L);
+
+        clock.advance(Duration.ofHours(25));
+        assertThat(trendingTracker.getTopFilmIds(DAY, 10)).isEmpty();
+        assertThat(trendingTracker.getLikes(WEEK, 2L)).isEqualTo(2);
+
+        clock.advance(Duration.ofDays(3));
+        assertThat(trendingTracker.getTopFilmIds(WEEK, 10)).containsExactly(1L, 2L);
+        assertThat(trendingTracker.getLikes(WEEK, 2L)).isEqualTo(1);
+
+        clock.advance(Duration.ofDays(3));
+        assertThat(trendingTracker.getTopFilmIds(WEEK, 10)).isEmpty();
+    }
+
+    @Test
+    void removeLikeUsesOriginalLikeTime() {
+        long now = clock.millis();
+        long twoDaysAgo = now - Duration.ofDays(2).toMillis();
+        trendingTracker.addLike(1L, twoDaysAgo);
+        trendingTracker.addLike(1L, now);
+
+        trendingTracker.removeLike(1L, twoDaysAgo);
+        trendingTracker.removeLike(1L, twoDaysAgo);
+        trendingTracker.removeLike(1L, null);
+
+        assertThat(trendingTracker.getLikes(DAY, 1L)).isEqualTo(1);
+        assertThat(trendingTracker.getLikes(WEEK, 1L)).isEqualTo(1);
+    }
+
+    @Test
+    void removeFilmDropsItFromAllWindows() {
+        trendingTracker.addLike(1L, clock.millis());
+        trendingTracker.addLike(2L, clock.millis());
+
+        trendingTracker.removeFilm(1L);
+
+        assertThat(trendingTracker.getTopFilmIds(DAY, 10)).containsExactly(2L);
+        assertThat(trendingTracker.getTopFilmIds(WEEK, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void rebuildReadsRecentLikesOnly() {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        Film film = filmRepository.create(Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .mpa(mpa)
+                .build());
+        long now = clock.millis();
+        long[] likedAt = {now - Duration.ofHours(1).toMillis(), now - Duration.ofDays(3).toMillis(),
+                now - Duration.ofDays(30).toMillis()};
+        for (int i = 0; i < likedAt.length; i++) {
+            User user = userRepository.create(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("login" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+            jdbc.update("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)",
+                    film.getId(), user.getId(), likedAt[i]);
+        }
+
+        trendingTracker.rebuild();
+
+        assertThat(trendingTracker.getLikes(DAY, film.getId())).isEqualTo(1);
+        assertThat(trendingTracker.getLikes(WEEK, film.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void topQueryRanksLargeHistory() {
+        fillHistory();
+
+        assertThat(trendingTracker.getTopFilmIds(WEEK, 3)).containsExactly(19L, 39L, 59L);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void topQueryDoesNotDependOnHistorySize() {
+        fillHistory();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            trendingTracker.getTopFilmIds(WEEK, 10);
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / 1_000;
+
+        assertThat(micros).isLessThan(1_000);
+    }
+
+    private void fillHistory() {
+        long now = clock.millis();
+        for (long filmId = 1; filmId <= 10_000; filmId++) {
+            for (int like = 0; like < filmId % 20; like++) {
+                trendingTracker.addLike(filmId, now - Duration.ofMinutes(filmId % (7 * 24 * 60)).toMillis());
+            }
+        }
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class LevenshteinTrieTest {
+    static final List<String> SYLLABLES = List.of("ма", "три", "ца", "пе", "ре", "за", "гру", "зка", "па", "рк",
+            "ю", "рс", "ко", "го", "ри", "од", "ав", "ат", "ар", "кри", "ми", "на", "ль", "чт", "иво", "ди", "ун",
+            "ле", "зв", "ию", "ти", "тан", "ик", "тер", "хи", "щн", "пиа", "ни", "ст", "бр");
+
+    @Test
+    void computesLevenshteinDistance() {
+        assertThat(LevenshteinTrie.distance("матрица", "матрица")).isZero();
+        assertThat(LevenshteinTrie.distance("матрица", "матрца")).isEqualTo(1);
+        assertThat(LevenshteinTrie.distance("матрица", "мытрица")).isEqualTo(1);
+        assertThat(LevenshteinTrie.distance("аватар", "аватор")).isEqualTo(1);
+        assertThat(LevenshteinTrie.distance("", "кот")).isEqualTo(3);
+        assertThat(LevenshteinTrie.distance("кот", "ток")).isEqualTo(2);
+    }
+
+    @Test
+    void searchMatchesScan() {
+        Random random = new Random(5);
+        Set<String> words = new HashSet<>();
+        LevenshteinTrie tree = new LevenshteinTrie();
+        for (int i = 0; i < 5_000; i++) {
+            String word = word(random);
+            words.add(word);
+            tree.add(word);
+        }
+
+        assertThat(tree.size()).isEqualTo(words.size());
+        for (String query : List.of("матрица", "паркон", "тер", "кривод", "щщщ")) {
+            for (int edits = 1; edits <= 2; edits++) {
+                int maxEdits = edits;
+                Map<String, Integer> expected = words.stream()
+                        .filter(word -> LevenshteinTrie.distance(query, word) <= maxEdits)
+                        .collect(Collectors.toMap(word -> word, word -> LevenshteinTrie.distance(query, word)));
+                assertThat(tree.search(query, maxEdits)).as("%s~%d", query, maxEdits).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void removePrunesDeletedWords() {
+        Random random = new Random(7);
+        Set<String> generated = new LinkedHashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            generated.add(word(random));
+        }
+        List<String> words = new ArrayList<>(generated);
+        LevenshteinTrie tree = new LevenshteinTrie();
+        words.forEach(tree::add);
+        tree.add("мат");
+
+        List<String> removed = words.subList(0, words.size() / 2);
+        removed.forEach(word -> assertThat(tree.remove(word)).as(word).isTrue());
+        assertThat(tree.remove(removed.getFirst())).isFalse();
+        assertThat(tree.remove("щщщ")).isFalse();
+
+        Set<String> remaining = new HashSet<>(words.subList(words.size() / 2, words.size()));
+        remaining.add("мат");
+        assertThat(tree.size()).isEqualTo(remaining.size());
+        for (String query : List.of("матрица", "паркон", "мат", "кривод")) {
+            Map<String, Integer> expected = remaining.stream()
+                    .filter(word -> LevenshteinTrie.distance(query, word) <= 2)
+                    .collect(Collectors.toMap(word -> word, word -> LevenshteinTrie.distance(query, word)));
+            assertThat(tree.search(query, 2)).as(query).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void fuzzyIndexDropsUnusedWords() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("матрица перезагрузка"));
+        index.put(2L, List.of("матрица"));
+        index.put(1L, List.of("аватар"));
+
+        assertThat(index.vocabularySize()).isEqualTo(2);
+        assertThat(index.find("перезагрузка", 1)).isEmpty();
+
+        index.remove(2L);
+        assertThat(index.vocabularySize()).isEqualTo(1);
+        assertThat(index.find("матрица", 1)).isEmpty();
+        assertThat(index.find("аватор", 1)).containsEntry(1L, 1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void fuzzyLookupLatency() {
+        Random random = new Random(17);
+        FuzzyIndex index = new FuzzyIndex();
+        long id = 0;
+        for (int size : List.of(100_000, 1_000_000)) {
+            long start = System.nanoTime();
+            while (id < size) {
+                index.put(id++, List.of(word(random) + " " + word(random)));
+            }
+            long built = (System.nanoTime() - start) / 1_000_000;
+            List<String> queries = random.ints(20, 0, SYLLABLES.size())
+                    .mapToObj(i -> typo(word(random), random))
+                    .toList();
+
+            for (int edits = 1; edits <= 2; edits++) {
+                int maxEdits = edits;
+                queries.forEach(query -> index.find(query, maxEdits));
+                start = System.nanoTime();
+                queries.forEach(query -> index.find(query, maxEdits));
+                long micros = (System.nanoTime() - start) / queries.size() / 1_000;
+                log.info("Нечеткий поиск среди {} названий ({} слов, построение {} мс), {} правки: {} мкс",
+                        size, index.vocabularySize(), built, maxEdits, micros);
+            }
+        }
+        assertThat(index.find("матрица", 1)).isNotNull();
+    }
+
+    private static String typo(String word, Random random) {
+        int position = random.nextInt(word.length());
+        return word.substring(0, position) + "ы" + word.substring(position + 1);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, syllables = 2 + random.nextInt(3); i < syllables; i++) {
+            word.append(SYLLABLES.get(random.nextInt(SYLLABLES.size())));
+        }
+        return word.toString();
+    }
+}
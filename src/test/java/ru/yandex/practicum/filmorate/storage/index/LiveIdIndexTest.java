@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveIdIndexTest {
+    @Test
+    void tracksAddedAndRemovedIds() {
+        LiveIdIndex index = new LiveIdIndex();
+        index.reset(List.of(1L, 5L, 1000L));
+
+        index.add(7L);
+        index.remove(5L);
+
+        assertThat(index.contains(1L)).isTrue();
+        assertThat(index.contains(5L)).isFalse();
+        assertThat(index.contains(7L)).isTrue();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsIdsOutsideIndexableRange() {
+        LiveIdIndex index = new LiveIdIndex();
+
+        assertThat(index.contains(null)).isFalse();
+        assertThat(index.contains(-1L)).isFalse();
+        assertThat(index.contains(Long.MAX_VALUE)).isFalse();
+        assertThatThrownBy(() -> index.add(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void resetReplacesPreviousIds() {
+        LiveIdIndex index = new LiveIdIndex();
+        index.reset(List.of(1L, 2L));
+
+        index.reset(List.of(3L));
+
+        assertThat(index.contains(1L)).isFalse();
+        assertThat(index.contains(3L)).isTrue();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MinHashLshTest {
+    @Test
+    void similarSetsShareBuckets() {
+        MinHashLsh lsh = new MinHashLsh(16, 4, 1);
+        for (int element = 0; element < 100; element++) {
+            lsh.add(1, element);
+            lsh.add(2, element);
+            lsh.add(3, element < 90 ? element : element + 1_000);
+            lsh.add(4, element + 10_000);
+        }
+
+        assertThat(lsh.candidates(1).stream().boxed().toList()).containsExactly(2, 3);
+        assertThat(lsh.similarity(1, 2)).isEqualTo(1.0);
+        assertThat(lsh.similarity(1, 3)).isBetween(0.6, 1.0);
+        assertThat(lsh.similarity(1, 4)).isZero();
+
+        lsh.removeId(2);
+        assertThat(lsh.candidates(1).stream().boxed().toList()).containsExactly(3);
+        assertThat(lsh.size()).isEqualTo(3);
+    }
+
+    @Test
+    void incrementalUpdatesMatchRebuild() {
+        Random random = new Random(3);
+        MinHashLsh incremental = new MinHashLsh(8, 2, 7);
+        MinHashLsh rebuilt = new MinHashLsh(8, 2, 7);
+        SparseBitmap[] sets = new SparseBitmap[50];
+        for (int id = 0; id < sets.length; id++) {
+            sets[id] = new SparseBitmap();
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(sets.length);
+            int element = random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                if (sets[id].clear(element)) {
+                    incremental.remove(id, element, sets[id]);
+                }
+            } else if (sets[id].set(element)) {
+                incremental.add(id, element);
+            }
+        }
+        for (int id = 0; id < sets.length; id++) {
+            rebuilt.put(id, sets[id]);
+        }
+
+        for (int id = 0; id < sets.length; id++) {
+            assertThat(incremental.candidates(id)).as("набор %d", id).isEqualTo(rebuilt.candidates(id));
+        }
+    }
+}
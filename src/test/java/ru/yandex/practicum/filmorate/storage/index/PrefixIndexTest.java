@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class PrefixIndexTest {
+    static final int CACHE_SIZE = 5;
+    static final List<String> WORDS = List.of("Матрица", "Мастер", "Маргарита", "Марс", "Парк", "Пароль", "Звезда",
+            "Звездные", "Войны", "Воин", "2", "Начало", "Наследие");
+
+    @Test
+    void returnsMostPopularMatchesForPrefix() {
+        PrefixIndex<Long> index = new PrefixIndex<>(CACHE_SIZE, Comparator.naturalOrder());
+        index.put(1L, "Матрица", 10);
+        index.put(2L, "Матрица 2: Перезагрузка", 7);
+        index.put(3L, "Мастер и Маргарита", 12);
+        index.put(4L, "Парк юрского периода", 3);
+
+        assertThat(index.find("ма", 10)).containsExactly(3L, 1L, 2L);
+        assertThat(index.find("МАТ", 1)).containsExactly(1L);
+        assertThat(index.find("пере", 10)).containsExactly(2L);
+        assertThat(index.find("марг", 10)).containsExactly(3L);
+        assertThat(index.find("ю", 10)).containsExactly(4L);
+        assertThat(index.find("атри", 10)).isEmpty();
+
+        index.updateScore(2L, 20);
+        index.remove(3L);
+
+        assertThat(index.find("ма", 10)).containsExactly(2L, 1L);
+        assertThat(index.find("марг", 10)).isEmpty();
+        assertThat(index.getText(2L)).contains("Матрица 2: Перезагрузка");
+    }
+
+    @Test
+    void cachesStayConsistentWithScan() {
+        Random random = new Random(11);
+        PrefixIndex<Long> index = new PrefixIndex<>(CACHE_SIZE, Comparator.naturalOrder());
+        Map<Long, String> texts = new HashMap<>();
+        Map<Long, Long> scores = new HashMap<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            long id = random.nextInt(300);
+            int action = random.nextInt(10);
+            if (action < 5) {
+                String text = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()));
+                long score = random.nextInt(50);
+                index.put(id, text, score);
+                texts.put(id, text);
+                scores.put(id, score);
+            } else if (action < 8 && texts.containsKey(id)) {
+                long score = random.nextInt(50);
+                index.updateScore(id, score);
+                scores.put(id, score);
+            } else {
+                index.remove(id);
+                texts.remove(id);
+                scores.remove(id);
+            }
+        }
+
+        for (String prefix : List.of("м", "ма", "мар", "зв", "звезд", "2", "н", "в", "воин", "матрица 2", "x")) {
+            assertThat(index.find(prefix, CACHE_SIZE)).as(prefix).isEqualTo(scan(texts, scores, prefix));
+        }
+        assertThat(index.size()).isEqualTo(texts.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void prefixLookupStaysFast() {
+        Random random = new Random(3);
+        PrefixIndex<Long> index = new PrefixIndex<>(10, Comparator.naturalOrder());
+        for (long id = 0; id < 100_000; id++) {
+            index.put(id, WORDS.get(random.nextInt(WORDS.size())) + " " + id, random.nextInt(1_000));
+        }
+        List<String> prefixes = List.of("м", "ма", "мас", "зве", "в", "2", "пар", "на");
+        prefixes.forEach(prefix -> index.find(prefix, 10));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            prefixes.forEach(prefix -> assertThat(index.find(prefix, 10)).hasSize(10));
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / prefixes.size() / 1_000;
+
+        log.info("Подсказка по префиксу среди {} названий: {} мкс", index.size(), micros);
+        assertThat(micros).isLessThan(1_000);
+    }
+
+    private static List<Long> scan(Map<Long, String> texts, Map<Long, Long> scores, String prefix) {
+        return texts.entrySet().stream()
+                .filter(entry -> matches(entry.getValue().toLowerCase(Locale.ROOT), prefix))
+                .map(Map.Entry::getKey)
+                .sorted(Comparator.comparing((Long id) -> scores.get(id)).reversed()
+                        .thenComparing(id -> texts.get(id).toLowerCase(Locale.ROOT))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(CACHE_SIZE)
+                .toList();
+    }
+
+    private static boolean matches(String text, String prefix) {
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if (wordStart && text.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
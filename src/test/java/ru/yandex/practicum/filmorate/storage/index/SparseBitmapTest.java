@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SparseBitmapTest {
+    @Test
+    void matchesBitSet() {
+        Random random = new Random(11);
+        SparseBitmap left = new SparseBitmap();
+        SparseBitmap right = new SparseBitmap();
+        BitSet leftBits = new BitSet();
+        BitSet rightBits = new BitSet();
+
+        for (int i = 0; i < 20_000; i++) {
+            int position = random.nextInt(i % 2 == 0 ? 5_000 : 1_000_000);
+            boolean add = random.nextInt(4) != 0;
+            SparseBitmap bitmap = random.nextBoolean() ? left : right;
+            BitSet bits = bitmap == left ? leftBits : rightBits;
+            if (add) {
+                assertThat(bitmap.set(position)).isEqualTo(!bits.get(position));
+                bits.set(position);
+            } else {
+                assertThat(bitmap.clear(position)).isEqualTo(bits.get(position));
+                bits.clear(position);
+            }
+        }
+
+        assertThat(left.cardinality()).isEqualTo(leftBits.cardinality());
+        assertThat(right.get(rightBits.nextSetBit(0))).isTrue();
+        assertThat(right.get(rightBits.nextClearBit(0))).isFalse();
+        assertThat(positions(left)).isEqualTo(leftBits.stream().boxed().toList());
+
+        BitSet and = (BitSet) leftBits.clone();
+        and.and(rightBits);
+        assertThat(SparseBitmap.andCardinality(left, right)).isEqualTo(and.cardinality());
+
+        BitSet andNot = (BitSet) leftBits.clone();
+        andNot.andNot(rightBits);
+        List<Integer> difference = new ArrayList<>();
+        SparseBitmap.forEachAndNot(left, right, difference::add);
+        assertThat(difference).isEqualTo(andNot.stream().boxed().toList());
+
+        long[] union = new long[Math.max(left.lastWordIndex(), right.lastWordIndex()) + 1];
+        left.orInto(union);
+        right.orInto(union);
+        BitSet or = (BitSet) leftBits.clone();
+        or.or(rightBits);
+        assertThat(BitSet.valueOf(union)).isEqualTo(or);
+    }
+
+    @Test
+    void sparseRowsStayCompact() {
+        SparseBitmap bitmap = new SparseBitmap();
+        for (int i = 0; i < 100; i++) {
+            bitmap.set(i * 10_000);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(100);
+        assertThat(bitmap.sizeInBytes()).isLessThan(100 * 10_000 / 8 / 10);
+    }
+
+    private static List<Integer> positions(SparseBitmap bitmap) {
+        List<Integer> positions = new ArrayList<>();
+        bitmap.forEach(positions::add);
+        return positions;
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class TrigramIndexTest {
+    static final List<String> WORDS = List.of("матрица", "перезагрузка", "парк", "юрского", "периода", "аватар",
+            "криминальное", "чтиво", "начало", "интерстеллар", "дюна", "бегущий", "по", "лезвию", "титаник",
+            "терминатор", "чужой", "хищник", "пианист", "леон", "брат", "2", "3", "возвращение", "короля");
+    static final List<String> SYLLABLES = List.of("ма", "три", "ца", "пе", "ре", "за", "гру", "зка", "па", "рк",
+            "ю", "рс", "ко", "го", "ри", "од", "ав", "ат", "ар", "кри", "ми", "на", "ль", "чт", "иво", "ди", "ун",
+            "ле", "зв", "ию", "ти", "тан", "ик", "тер", "хи", "щн", "пиа", "ни", "ст", "бр");
+    static final List<String> QUERIES = List.of("атри", "а", "ри", "р с", "ерезагрузк", "чужой", "к", "2 ",
+            "ник", "ара", "zzz", "о в");
+
+    @Test
+    void compressedListKeepsSortedDistinctValues() {
+        CompressedIntList list = new CompressedIntList();
+        List.of(5, 1, 300, 5, 70_000, 2, Integer.MAX_VALUE).forEach(list::add);
+
+        assertThat(list.toArray()).containsExactly(1, 2, 5, 300, 70_000, Integer.MAX_VALUE);
+        assertThat(list.remove(300)).isTrue();
+        assertThat(list.remove(301)).isFalse();
+        assertThat(list.contains(70_000)).isTrue();
+        assertThat(list.contains(300)).isFalse();
+        assertThat(list.sizeInBytes()).isLessThan(list.size() * Integer.BYTES);
+
+        CompressedIntList other = new CompressedIntList();
+        List.of(2, 3, 70_000, Integer.MAX_VALUE).forEach(other::add);
+        assertThat(CompressedIntList.intersect(List.of(list, other))).containsExactly(2, 70_000, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void findMatchesSubstringScan() {
+        Map<Long, String> titles = titles(2_000, new Random(7));
+        TrigramIndex index = new TrigramIndex();
+        titles.forEach((id, title) -> index.put(id, List.of(title)));
+        for (long id = 0; id < 100; id++) {
+            index.remove(id);
+            titles.remove(id);
+        }
+        index.put(100L, List.of("матрица 2: перезагрузка"));
+        titles.put(100L, "матрица 2: перезагрузка");
+
+        for (String query : QUERIES) {
+            assertThat(index.find(query)).as(query).isEqualTo(scan(titles, query));
+        }
+        assertThat(index.find("")).hasSize(titles.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareWithSubstringScan() {
+        for (int size : List.of(20_000, 200_000)) {
+            Random random = new Random(size);
+            Map<Long, String> titles = new HashMap<>();
+            for (long id = 0; id < size; id++) {
+                titles.put(id, word(random) + " " + word(random));
+            }
+            TrigramIndex index = new TrigramIndex();
+            titles.forEach((id, title) -> index.put(id, List.of(title)));
+            List<String> queries = random.ints(20, 0, size)
+                    .mapToObj(id -> titles.get((long) id))
+                    .map(title -> title.substring(1, Math.min(title.length(), 7)))
+                    .toList();
+
+            long indexed = measure(queries, index::find);
+            long scanned = measure(queries, query -> scan(titles, query));
+
+            log.info("Поиск подстроки среди {} названий: триграммный индекс - {} мкс, перебор - {} мкс",
+                    size, indexed, scanned);
+            queries.forEach(query -> assertThat(index.find(query)).isEqualTo(scan(titles, query)));
+        }
+    }
+
+    private static long measure(List<String> queries, Function<String, List<Long>> search) {
+        queries.forEach(search::apply);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            queries.forEach(search::apply);
+        }
+        return (System.nanoTime() - start) / 10 / queries.size() / 1_000;
+    }
+
+    private static List<Long> scan(Map<Long, String> titles, String query) {
+        return titles.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(query))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, syllables = 2 + random.nextInt(3); i < syllables; i++) {
+            word.append(SYLLABLES.get(random.nextInt(SYLLABLES.size())));
+        }
+        return word.toString();
+    }
+
+    private static Map<Long, String> titles(int size, Random random) {
+        Map<Long, String> titles = new HashMap<>();
+        IntStream.range(0, size).forEach(id -> {
+            StringJoiner title = new StringJoiner(" ");
+            for (int i = 0, words = 1 + random.nextInt(3); i < words; i++) {
+                title.add(WORDS.get(random.nextInt(WORDS.size())));
+            }
+            titles.put((long) id, title.toString());
+        });
+        return titles;
+    }
+}
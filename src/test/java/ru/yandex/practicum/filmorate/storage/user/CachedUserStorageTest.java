@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.LikeCounterRepository;
+import ru.yandex.practicum.filmorate.dal.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import ru.yandex.practicum.filmorate.model.User;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({CachedUserStorage.class, UserCache.class, UserRepository.class, UserRowMapper.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CachedUserStorageTest {
+    final JdbcTemplate jdbc;
+    final CachedUserStorage cachedUserStorage;
+    final UserCache userCache;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        user = cachedUserStorage.create(User.builder()
+                .email("user@mail.ru")
+                .login("login")
+                .name("name")
+                .birthday(LocalDate.of(1999, 6, 15))
+                .build());
+    }
+
+    @Test
+    void getUserByIdServesRepeatedReadsFromCache() {
+        long hits = userCache.getUsers().getHits();
+
+        jdbc.update("UPDATE users SET name = ? WHERE id = ?", "changed behind cache", user.getId());
+        User first = cachedUserStorage.getUserById(user.getId()).get();
+        User second = cachedUserStorage.getUserById(user.getId()).get();
+
+        assertThat(first.getName()).isEqualTo("name");
+        assertThat(second.getName()).isEqualTo("name");
+        assertThat(userCache.getUsers().getHits() - hits).isEqualTo(2);
+    }
+
+    @Test
+    void cachedUserIsNotSharedWithCallers() {
+        cachedUserStorage.getUserById(user.getId()).get().setLogin("mutated");
+
+        assertThat(cachedUserStorage.getUserById(user.getId()).get().getLogin()).isEqualTo("login");
+    }
+
+    @Test
+    void updateEvictsUser() {
+        User cached = cachedUserStorage.getUserById(user.getId()).get();
+        cached.setName("updated");
+
+        cachedUserStorage.update(cached);
+        long misses = userCache.getUsers().getMisses();
+
+        assertThat(cachedUserStorage.getUserById(user.getId()).get().getName()).isEqualTo("updated");
+        assertThat(userCache.getUsers().getMisses() - misses).isEqualTo(1);
+    }
+
+    @Test
+    void deleteUserByIdEvictsUser() {
+        cachedUserStorage.getUserById(user.getId());
+
+        cachedUserStorage.deleteUserById(user.getId());
+
+        assertThat(cachedUserStorage.getUserById(user.getId())).isEmpty();
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        int size = userCache.getUsers().size();
+
+        assertThat(cachedUserStorage.getUserById(-1L)).isEmpty();
+        assertThat(userCache.getUsers().size()).isEqualTo(size);
+    }
+
+    @Test
+    void unknownIdIsRejectedWithoutQuery() {
+        jdbc.update("INSERT INTO users(id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)",
+                1_000_000L, "hidden@mail.ru", "hidden", "hidden", LocalDate.of(2000, 1, 1));
+
+        assertThat(cachedUserStorage.exists(1_000_000L)).isFalse();
+        assertThat(cachedUserStorage.getUserById(1_000_000L)).isEmpty();
+        assertThat(cachedUserStorage.exists(user.getId())).isTrue();
+    }
+}
@@ -0,0 +1,346 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeMatrix.class, FilmRepository.class, FilmRowMapper.class, FilmProjectionExtractor.class,
+        RatingRepository.class, RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class, DirectorCache.class, UserRepository.class,
+        UserRowMapper.class, LikeCounterRepository.class, LikeWriteBuffer.class})
+@TestPropertySource(properties = "filmorate.recommendations.exact-candidate-limit=" + Integer.MAX_VALUE)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class LikeMatrixTest {
+    static final int FILMS = 300;
+    static final int USERS = 400;
+    static final int ROUNDS = 20;
+    static final int GENERATED_USERS = 20_000;
+    static final int SCORED_USERS = 1_000;
+    static final int GENERATED_FILMS = 5_000;
+    static final int CLUSTERS = 50;
+    static final int CLUSTER_FILMS = GENERATED_FILMS / CLUSTERS;
+    static final int SAMPLED_USERS = 200;
+
+    final LikeMatrix likeMatrix;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final JdbcTemplate jdbc;
+    final List<Long> filmIds = new ArrayList<>();
+    final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        for (int i = 0; i < FILMS; i++) {
+            filmIds.add(filmRepository.create(Film.builder()
+                    .name("film" + i)
+                    .description("description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(mpa)
+                    .build()).getId());
+        }
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userRepository.create(User.builder()
+                    .email("matrix" + i + "@mail.ru")
+                    .login("matrix" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()).getId());
+        }
+
+        Random random = new Random(5);
+        List<Object[]> likes = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            int count = i == 0 ? FILMS / 2 : 1 + random.nextInt(i % 10 == 0 ? 100 : 20);
+            Set<Long> liked = new HashSet<>();
+            while (liked.size() < count) {
+                liked.add(filmIds.get((int) Math.min(FILMS - 1, Math.abs(random.nextGaussian()) * FILMS / 3)));
+                liked.add(filmIds.get(random.nextInt(FILMS)));
+            }
+            Long userId = userIds.get(i);
+            liked.forEach(filmId -> likes.add(new Object[]{filmId, userId, 0L}));
+        }
+        jdbc.batchUpdate("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)", likes);
+        likeMatrix.rebuild();
+    }
+
+    @Test
+    void recommendationsMatchSqlPath() {
+        for (Long userId : userIds.subList(0, 60)) {
+            assertThat(likeMatrix.getRecommendedFilmIds(userId))
+                    .as("пользователь %d", userId)
+                    .isEqualTo(sqlRecommendations(userId));
+        }
+        assertThat(likeMatrix.getRecommendedFilmIds((long) Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void sqlNeighboursMatchMatrix() {
+        Map<Long, List<Long>> likes = filmRepository.getLikedFilmIdsByUsers();
+        for (Long userId : userIds.subList(0, 60)) {
+            assertThat(filmIds(filmRepository.getRecommendedFilms(userId, 1)))
+                    .as("пользователь %d, 1 сосед", userId)
+                    .isEqualTo(likeMatrix.getRecommendedFilmIds(userId));
+            assertThat(filmIds(filmRepository.getRecommendedFilms(userId, 5)))
+                    .as("пользователь %d, 5 соседей", userId)
+                    .isEqualTo(weightedVotes(likes, userId, 5));
+        }
+
+        Film film = filmRepository.getRecommendedFilms(userIds.get(0), 5).getFirst();
+        assertThat(film.getMpa().getName()).isNotNull();
+        assertThat(film.getGenres()).isNotNull();
+    }
+
+    @Test
+    void likeChangesAreApplied() {
+        Long userId = userIds.get(1);
+        Long otherId = userIds.get(2);
+
+        jdbc.update("DELETE FROM likes WHERE user_id = ?", userId);
+        likeMatrix.removeUser(userId);
+        assertThat(likeMatrix.getRecommendedFilmIds(userId)).isEmpty();
+
+        filmRepository.getLikedFilmsByUser(otherId).forEach(filmId -> {
+            filmRepository.addLike(filmId, userId, System.currentTimeMillis());
+            likeMatrix.addLike(filmId, userId);
+        });
+        Long removed = filmRepository.getLikedFilmsByUser(otherId).getFirst();
+        filmRepository.removeLike(removed, userId);
+        likeMatrix.removeLike(removed, userId);
+        assertThat(likeMatrix.getRecommendedFilmIds(userId)).isEqualTo(sqlRecommendations(userId));
+
+        Long filmId = filmIds.get(0);
+        filmRepository.deleteFilmWithRelations(filmId);
+        likeMatrix.removeFilm(filmId);
+        assertThat(likeMatrix.getRecommendedFilmIds(userIds.get(0))).doesNotContain(filmId)
+                .isEqualTo(sqlRecommendations(userIds.get(0)));
+    }
+
+    @Test
+    void concurrentReadsAndWritesStayConsistent() throws Exception {
+        Long writer = userIds.get(3);
+        List<Long> liked = new ArrayList<>(filmIds);
+        liked.removeAll(filmRepository.getLikedFilmsByUser(writer));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        likeMatrix.getRecommendedFilmIds(userIds.get(i % USERS));
+                    }
+                }));
+            }
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    likeMatrix.addLike(liked.get(i % liked.size()), writer);
+                    likeMatrix.removeLike(liked.get(i % liked.size()), writer);
+                }
+            }));
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(likeMatrix.getRecommendedFilmIds(writer)).isEqualTo(sqlRecommendations(writer));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareWithSqlPath() {
+        Long powerUser = userIds.get(0);
+        long sql = measure(() -> sqlRecommendations(powerUser));
+        long matrix = measure(() -> likeMatrix.getRecommendedFilmIds(powerUser));
+
+        long knn = measure(() -> filmIds(filmRepository.getRecommendedFilms(powerUser, 10)));
+
+        log.info("Рекомендации для пользователя с {} лайками среди {} пользователей: SQL - {} мкс, матрица - {} мкс, "
+                + "SQL kNN одним запросом - {} мкс", FILMS / 2, USERS, sql, matrix, knn);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareLshRecallAndLatency() {
+        for (int[] config : new int[][]{{16, 4}, {32, 2}, {64, 1}}) {
+            LikeMatrix matrix = new LikeMatrix(filmRepository, 0, config[0], config[1], 1, Integer.MAX_VALUE, 0);
+            long buildStart = System.nanoTime();
+            fill(matrix, GENERATED_USERS);
+            long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+            int matched = 0;
+            long exactNanos = 0;
+            long lshNanos = 0;
+            for (int pass = 0; pass < 2; pass++) {
+                matched = 0;
+                exactNanos = 0;
+                lshNanos = 0;
+                for (int sample = 0; sample < SAMPLED_USERS; sample++) {
+                    long user = (long) sample * GENERATED_USERS / SAMPLED_USERS;
+                    long start = System.nanoTime();
+                    Optional<Long> exact = matrix.findSimilarUserId(user, Integer.MAX_VALUE);
+                    long middle = System.nanoTime();
+                    Optional<Long> approximate = matrix.findSimilarUserId(user, 0);
+                    lshNanos += System.nanoTime() - middle;
+                    exactNanos += middle - start;
+                    int exactOverlap = exact.map(other -> matrix.getOverlap(user, other)).orElse(0);
+                    int lshOverlap = approximate.map(other -> matrix.getOverlap(user, other)).orElse(0);
+                    if (lshOverlap == exactOverlap) {
+                        matched++;
+                    }
+                }
+            }
+
+            log.info("LSH {}x{} на {} пользователях (построение {} мс): полнота {}%, "
+                            + "точный поиск - {} мкс, LSH - {} мкс", config[0], config[1], GENERATED_USERS, buildMillis,
+                    matched * 100 / SAMPLED_USERS, exactNanos / SAMPLED_USERS / 1_000,
+                    lshNanos / SAMPLED_USERS / 1_000);
+            assertThat(matched).isPositive();
+        }
+    }
+
+    @Test
+    void parallelScoringMatchesSequential() {
+        LikeMatrix sequential = new LikeMatrix(filmRepository, Integer.MAX_VALUE, 32, 2, 1, Integer.MAX_VALUE, 0);
+        LikeMatrix parallel = new LikeMatrix(filmRepository, Integer.MAX_VALUE, 32, 2, 4, 0, 0);
+        fill(sequential, SCORED_USERS);
+        fill(parallel, SCORED_USERS);
+        try {
+            for (int sample = 0; sample < SAMPLED_USERS; sample++) {
+                long user = (long) sample * SCORED_USERS / SAMPLED_USERS;
+                assertThat(parallel.findSimilarUserId(user, Integer.MAX_VALUE))
+                        .as("пользователь %d", user)
+                        .isEqualTo(sequential.findSimilarUserId(user, Integer.MAX_VALUE));
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compareParallelScoring() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int parallelism : new TreeSet<>(List.of(1, 2, 4, processors))) {
+            LikeMatrix matrix = new LikeMatrix(filmRepository, Integer.MAX_VALUE, 32, 2, parallelism, 0, 0);
+            fill(matrix, GENERATED_USERS);
+            long nanos = 0;
+            for (int pass = 0; pass < 2; pass++) {
+                long start = System.nanoTime();
+                for (int sample = 0; sample < SAMPLED_USERS; sample++) {
+                    matrix.findSimilarUserId((long) sample * GENERATED_USERS / SAMPLED_USERS, Integer.MAX_VALUE);
+                }
+                nanos = System.nanoTime() - start;
+            }
+            matrix.shutdown();
+            log.info("Точный подбор соседа среди {} пользователей, параллелизм {} при {} ядрах: {} мкс",
+                    GENERATED_USERS, parallelism, processors, nanos / SAMPLED_USERS / 1_000);
+        }
+    }
+
+    private static void fill(LikeMatrix matrix, int users) {
+        Random random = new Random(17);
+        for (int user = 0; user < users; user++) {
+            int cluster = random.nextInt(CLUSTERS);
+            int likes = 10 + random.nextInt(user % 20 == 0 ? 300 : 60);
+            for (int i = 0; i < likes; i++) {
+                int film = random.nextInt(10) < 7
+                        ? cluster * CLUSTER_FILMS + random.nextInt(CLUSTER_FILMS)
+                        : (int) Math.min(GENERATED_FILMS - 1, Math.abs(random.nextGaussian()) * 100);
+                matrix.addLike((long) film, (long) user);
+            }
+        }
+    }
+
+    private long measure(Supplier<List<Long>> recommendations) {
+        recommendations.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            recommendations.get();
+        }
+        return (System.nanoTime() - start) / ROUNDS / 1_000;
+    }
+
+    private static List<Long> filmIds(List<Film> films) {
+        return films.stream()
+                .map(Film::getId)
+                .toList();
+    }
+
+    private static List<Long> weightedVotes(Map<Long, List<Long>> likes, Long userId, int neighbours) {
+        Set<Long> liked = new HashSet<>(likes.getOrDefault(userId, List.of()));
+        Map<Long, Long> overlaps = new HashMap<>();
+        likes.forEach((otherId, films) -> {
+            long overlap = films.stream().filter(liked::contains).count();
+            if (!otherId.equals(userId) && overlap > 0) {
+                overlaps.put(otherId, overlap);
+            }
+        });
+        Map<Long, Long> scores = new HashMap<>();
+        overlaps.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(neighbours)
+                .forEach(neighbour -> likes.get(neighbour.getKey()).stream()
+                        .filter(filmId -> !liked.contains(filmId))
+                        .forEach(filmId -> scores.merge(filmId, neighbour.getValue(), Long::sum)));
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private List<Long> sqlRecommendations(Long userId) {
+        List<Long> liked = filmRepository.getLikedFilmsByUser(userId);
+        if (liked.isEmpty()) {
+            return List.of();
+        }
+        Long bestUser = null;
+        long bestOverlap = 0;
+        for (Long otherId : new TreeSet<>(filmRepository.getUsersLikedSameFilms(liked, userId))) {
+            long overlap = filmRepository.getLikedFilmsByUser(otherId).stream()
+                    .filter(liked::contains)
+                    .count();
+            if (overlap > bestOverlap) {
+                bestOverlap = overlap;
+                bestUser = otherId;
+            }
+        }
+        if (bestUser == null) {
+            return List.of();
+        }
+        return filmRepository.getRecommendedFilmIds(userId, bestUser).stream()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.director.DirectorCache;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({RecommendationStore.class, LikeMatrix.class, EventRepository.class, EventRowMapper.class,
+        FilmRepository.class, FilmRowMapper.class, FilmProjectionExtractor.class, RatingRepository.class,
+        RatingRowMapper.class, GenreRepository.class, GenreRowMapper.class, DirectorRepository.class,
+        DirectorRowMapper.class, DirectorCache.class, UserRepository.class, UserRowMapper.class,
+        LikeCounterRepository.class, LikeWriteBuffer.class})
+@TestPropertySource(properties = {
+        "filmorate.recommendations.store.enabled=true",
+        "filmorate.recommendations.store.top-n=5",
+        "filmorate.recommendations.store.refresh-interval-ms=3600000",
+        "filmorate.recommendations.exact-candidate-limit=" + Integer.MAX_VALUE})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class RecommendationStoreTest {
+    static final int FILMS = 40;
+    static final int USERS = 50;
+
+    final RecommendationStore recommendationStore;
+    final LikeMatrix likeMatrix;
+    final FilmRepository filmRepository;
+    final UserRepository userRepository;
+    final EventRepository eventRepository;
+    final JdbcTemplate jdbc;
+    final List<Long> filmIds = new ArrayList<>();
+    final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Rating mpa = new Rating();
+        mpa.setId(1L);
+        for (int i = 0; i < FILMS; i++) {
+            filmIds.add(filmRepository.create(Film.builder()
+                    .name("film" + i)
+                    .description("description")
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .mpa(mpa)
+                    .build()).getId());
+        }
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userRepository.create(User.builder()
+                    .email("store" + i + "@mail.ru")
+                    .login("store" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build()).getId());
+        }
+    }
+
+    @Test
+    void refreshesUsersAffectedByLikeEvents() {
+        Long user = userIds.get(0);
+        Long other = userIds.get(1);
+        Long unrelated = userIds.get(2);
+        like(user, 0);
+        like(user, 1);
+        like(other, 0);
+        like(other, 1);
+        like(other, 2);
+        like(unrelated, 10);
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).containsExactly(filmIds.get(2));
+        assertThat(recommendationStore.getPending()).isZero();
+
+        like(other, 3);
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).containsExactly(filmIds.get(2));
+
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user))
+                .containsExactly(filmIds.get(2), filmIds.get(3));
+        assertThat(recommendationStore.getPending()).isZero();
+        assertThat(recommendationStore.getLagMillis()).isZero();
+    }
+
+    @Test
+    void storedRecommendationsFollowRandomLikeChanges() {
+        Random random = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 60; i++) {
+                Long userId = userIds.get(random.nextInt(USERS));
+                int film = random.nextInt(FILMS);
+                if (random.nextInt(4) == 0) {
+                    unlike(userId, film);
+                } else {
+                    like(userId, film);
+                }
+            }
+            recommendationStore.refresh();
+            for (Long userId : userIds) {
+                List<Long> expected = likeMatrix.getRecommendedFilmIds(userId);
+                assertThat(recommendationStore.getRecommendedFilmIds(userId))
+                        .as("раунд %d, пользователь %d", round, userId)
+                        .isEqualTo(expected.subList(0, Math.min(5, expected.size())));
+            }
+        }
+    }
+
+    @Test
+    void removedUsersAndFilmsAreRefreshed() {
+        Long user = userIds.get(0);
+        Long other = userIds.get(1);
+        like(user, 0);
+        like(other, 0);
+        like(other, 1);
+        like(other, 2);
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).containsExactly(filmIds.get(1), filmIds.get(2));
+
+        recommendationStore.removeFilm(filmIds.get(1));
+        likeMatrix.removeFilm(filmIds.get(1));
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).containsExactly(filmIds.get(2));
+
+        likeMatrix.removeUser(other);
+        recommendationStore.removeUser(other, List.of(filmIds.get(0), filmIds.get(2)));
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).isEmpty();
+    }
+
+    @Test
+    void eventsCommittedOutOfIdOrderAreNotSkipped() {
+        Long user = userIds.get(0);
+        Long other = userIds.get(1);
+        like(user, 0);
+        like(other, 0);
+        recommendationStore.refresh();
+        long lastEventId = eventRepository.getLastEventId();
+
+        likeWithEventId(other, 2, lastEventId + 2);
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user)).containsExactly(filmIds.get(2));
+        assertThat(recommendationStore.getGaps()).isEqualTo(1);
+
+        likeWithEventId(other, 1, lastEventId + 1);
+        recommendationStore.refresh();
+        assertThat(recommendationStore.getRecommendedFilmIds(user))
+                .containsExactlyInAnyOrder(filmIds.get(1), filmIds.get(2));
+        assertThat(recommendationStore.getGaps()).isZero();
+    }
+
+    private void likeWithEventId(Long userId, int film, long eventId) {
+        Long filmId = filmIds.get(film);
+        filmRepository.addLike(filmId, userId, System.currentTimeMillis());
+        likeMatrix.addLike(filmId, userId);
+        jdbc.update("INSERT INTO event(event_id, timestamp, user_id, eventType, operation, entity_id) " +
+                "VALUES (?, ?, ?, 'LIKE', 'ADD', ?)", eventId, Instant.now().toEpochMilli(), userId, filmId);
+    }
+
+    private void like(Long userId, int film) {
+        Long filmId = filmIds.get(film);
+        if (filmRepository.addLike(filmId, userId, System.currentTimeMillis())) {
+            likeMatrix.addLike(filmId, userId);
+            eventRepository.addEvent(Instant.now().toEpochMilli(), userId, "LIKE", "ADD", filmId);
+        }
+    }
+
+    private void unlike(Long userId, int film) {
+        Long filmId = filmIds.get(film);
+        if (filmRepository.removeLike(filmId, userId)) {
+            likeMatrix.removeLike(filmId, userId);
+            eventRepository.addEvent(Instant.now().toEpochMilli(), userId, "LIKE", "REMOVE", filmId);
+        }
+    }
+}